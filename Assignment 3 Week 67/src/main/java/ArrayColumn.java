@@ -0,0 +1,81 @@
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * This class provides a column whose values are stored in a single contiguous array of primitive doubles on the heap.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class ArrayColumn extends DoubleColumn {
+
+    private final double[] values;
+
+    /**
+     * Constructs a column on top of an array. The array is not copied.
+     *
+     * @param values the values of the column
+     */
+
+    public ArrayColumn(double[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Constructs a column of the given length in which every value is 0.
+     *
+     * @param length the number of values
+     */
+
+    public ArrayColumn(int length) {
+        this(new double[length]);
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public double get(int row) {
+        return this.values[row];
+    }
+
+    @Override
+    public void set(int row, double value) {
+        this.values[row] = value;
+    }
+
+    @Override
+    public DoubleColumn copy(int length) {
+        return new ArrayColumn(Arrays.copyOf(this.values, length));
+    }
+
+    @Override
+    public void copyTo(int from, double[] dst, int offset, int length) {
+        System.arraycopy(this.values, from, dst, offset, length);
+    }
+
+    @Override
+    public void copyFrom(int from, double[] src, int offset, int length) {
+        System.arraycopy(src, offset, this.values, from, length);
+    }
+
+    @Override
+    public DoubleColumn gather(int[] rows, int count) {
+        double[] gathered = new double[count];
+        for (int i = 0; i < count; i++) {
+            gathered[i] = this.values[rows[i]];
+        }
+        return new ArrayColumn(gathered);
+    }
+
+    @Override
+    public double reduce(int from, int to, DoubleBinaryOperator operator) {
+        double result = this.values[from];
+        for (int i = from + 1; i < to; i++) {
+            result = operator.applyAsDouble(result, this.values[i]);
+        }
+        return result;
+    }
+}
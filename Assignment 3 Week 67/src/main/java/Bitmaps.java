@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * This class provides operations on bitmaps that are stored in arrays of longs, with bit i of the bitmap in bit i % 64
+ * of word i / 64. Bitmaps hold the validity of the values of a column, and the values of a column of booleans.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+final class Bitmaps {
+
+    private Bitmaps() {
+    }
+
+    /**
+     * @param length the number of bits
+     * @return the number of words needed to store that many bits
+     */
+
+    static int words(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    /**
+     * @param length the number of bits
+     * @return a bitmap in which every bit is set
+     */
+
+    static long[] allSet(int length) {
+        long[] bits = new long[words(length)];
+        Arrays.fill(bits, -1L);
+        return bits;
+    }
+
+    /**
+     * @param bits the bitmap
+     * @param index the position of the bit
+     * @return whether the bit is set
+     */
+
+    static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets or clears a bit.
+     *
+     * @param bits the bitmap
+     * @param index the position of the bit
+     * @param value whether the bit is set
+     */
+
+    static void set(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        }
+        else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Copies the first bits of a bitmap into a bitmap of another length.
+     *
+     * @param bits the bitmap to copy
+     * @param size the number of bits in the bitmap
+     * @param length the number of bits of the copy
+     * @param fill whether the bits of the copy beyond size are set
+     * @return the copy
+     */
+
+    static long[] copy(long[] bits, int size, int length, boolean fill) {
+        long[] copied = Arrays.copyOf(bits, words(length));
+        int kept = Math.min(size, length);
+        if ((kept & 63) != 0) {
+            long mask = -1L << kept;
+            copied[kept >>> 6] = fill ? copied[kept >>> 6] | mask : copied[kept >>> 6] & ~mask;
+        }
+        for (int word = words(kept); word < copied.length; word++) {
+            copied[word] = fill ? -1L : 0L;
+        }
+        return copied;
+    }
+
+    /**
+     * Creates a bitmap with the bits at the given positions of a bitmap.
+     *
+     * @param bits the bitmap to gather the bits from
+     * @param rows the positions of the bits to gather
+     * @param count the number of positions to use
+     * @return a new bitmap with count bits
+     */
+
+    static long[] gather(long[] bits, int[] rows, int count) {
+        long[] gathered = new long[words(count)];
+        for (int i = 0; i < count; i++) {
+            if (get(bits, rows[i])) {
+                gathered[i >>> 6] |= 1L << i;
+            }
+        }
+        return gathered;
+    }
+}
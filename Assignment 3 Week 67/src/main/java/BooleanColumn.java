@@ -0,0 +1,132 @@
+/**
+ * This class provides a column of booleans, packed into a bitmap with one bit per value. A value takes a single bit,
+ * a 64th of what it takes in a column of doubles.
+ *
+ * The validity bitmap is only allocated once a value goes missing, so a column without missing values carries no
+ * bitmap. A missing value is stored as false.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class BooleanColumn implements Column {
+
+    private final long[] bits;
+    private final int size;
+    private long[] validity;
+
+    /**
+     * Constructs a column of the given length in which every value is false.
+     *
+     * @param length the number of values
+     */
+
+    public BooleanColumn(int length) {
+        this(new long[Bitmaps.words(length)], length, null);
+    }
+
+    /**
+     * Constructs a column on top of a bitmap of values and a validity bitmap. Neither is copied.
+     *
+     * @param bits the bitmap in which bit i is set if the value at row i is true
+     * @param size the number of values
+     * @param validity the bitmap in which bit i is set if the value at row i is present, or null if every value is
+     *                 present
+     */
+
+    private BooleanColumn(long[] bits, int size, long[] validity) {
+        this.bits = bits;
+        this.size = size;
+        this.validity = validity;
+    }
+
+    /**
+     * @param row the row index of the value
+     * @return the value stored at the row, which is false if the value is missing
+     */
+
+    public boolean getBoolean(int row) {
+        return Bitmaps.get(this.bits, row);
+    }
+
+    /**
+     * Sets the value stored at a row, which makes the value present.
+     *
+     * @param row the row index of the value
+     * @param value the new value
+     */
+
+    public void setBoolean(int row, boolean value) {
+        Bitmaps.set(this.bits, row, value);
+        if (this.validity != null) {
+            Bitmaps.set(this.validity, row, true);
+        }
+    }
+
+    /**
+     * Counts the true values of this column a word of 64 values at a time.
+     *
+     * @return the number of values that are true
+     */
+
+    public int countTrue() {
+        int count = 0;
+        for (long word : this.bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.BOOLEAN;
+    }
+
+    @Override
+    public boolean isValid(int row) {
+        return this.validity == null || Bitmaps.get(this.validity, row);
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return isValid(row) ? getBoolean(row) : null;
+    }
+
+    @Override
+    public void setObject(int row, Object value) throws ClassCastException {
+        setBoolean(row, (Boolean) value);
+    }
+
+    @Override
+    public void setMissing(int row) {
+        if (this.validity == null) {
+            this.validity = Bitmaps.allSet(this.size);
+        }
+        Bitmaps.set(this.bits, row, false);
+        Bitmaps.set(this.validity, row, false);
+    }
+
+    @Override
+    public double getAsDouble(int row) {
+        if (!isValid(row)) {
+            return Double.NaN;
+        }
+        return getBoolean(row) ? 1 : 0;
+    }
+
+    @Override
+    public BooleanColumn copy(int length) {
+        long[] copied = this.validity == null ? null : Bitmaps.copy(this.validity, this.size, length, true);
+        return new BooleanColumn(Bitmaps.copy(this.bits, this.size, length, false), length, copied);
+    }
+
+    @Override
+    public BooleanColumn gather(int[] rows, int count) {
+        long[] gathered = this.validity == null ? null : Bitmaps.gather(this.validity, rows, count);
+        return new BooleanColumn(Bitmaps.gather(this.bits, rows, count), count, gathered);
+    }
+}
@@ -0,0 +1,134 @@
+import java.nio.DoubleBuffer;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * This class provides a column whose values are stored in one or more DoubleBuffers, for example buffers that are
+ * mapped from a file. Since a single buffer can hold at most 2^31 - 1 values, the column is split into segments of a
+ * fixed number of values, each with its own buffer.
+ *
+ * Writes go directly to the buffers, unless the buffers are read-only. A copy of a buffer column is stored in an array
+ * on the heap.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class BufferColumn extends DoubleColumn {
+
+    /**
+     * The base 2 logarithm of the number of values in a segment.
+     */
+
+    public static final int SEGMENT_SHIFT = 27;
+
+    /**
+     * The number of values in every segment except the last.
+     */
+
+    public static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final DoubleBuffer[] segments;
+    private final int size;
+
+    /**
+     * Constructs a column on top of segment buffers. Every buffer except the last must hold exactly SEGMENT_SIZE
+     * values, counted from its position 0.
+     *
+     * @param segments the buffers that hold the values
+     * @param size the total number of values
+     */
+
+    public BufferColumn(DoubleBuffer[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * @param size the number of values of a column
+     * @return the number of segments needed to store that many values
+     */
+
+    public static int segmentCount(int size) {
+        return Math.max(1, (int) (((long) size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT));
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double get(int row) {
+        return this.segments[row >>> SEGMENT_SHIFT].get(row & SEGMENT_MASK);
+    }
+
+    @Override
+    public void set(int row, double value) {
+        this.segments[row >>> SEGMENT_SHIFT].put(row & SEGMENT_MASK, value);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return this.segments[0].isReadOnly();
+    }
+
+    @Override
+    public DoubleColumn copy(int length) {
+        double[] values = new double[length];
+        copyTo(0, values, 0, Math.min(length, this.size));
+        return new ArrayColumn(values);
+    }
+
+    @Override
+    public void copyTo(int from, double[] dst, int offset, int length) {
+
+        // Copies segment by segment with the bulk get of the buffers.
+
+        while (length > 0) {
+            DoubleBuffer segment = this.segments[from >>> SEGMENT_SHIFT].duplicate();
+            int start = from & SEGMENT_MASK;
+            int count = Math.min(length, SEGMENT_SIZE - start);
+            segment.position(start);
+            segment.get(dst, offset, count);
+            from += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void copyFrom(int from, double[] src, int offset, int length) {
+
+        // Copies segment by segment with the bulk put of the buffers.
+
+        while (length > 0) {
+            DoubleBuffer segment = this.segments[from >>> SEGMENT_SHIFT].duplicate();
+            int start = from & SEGMENT_MASK;
+            int count = Math.min(length, SEGMENT_SIZE - start);
+            segment.position(start);
+            segment.put(src, offset, count);
+            from += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public double reduce(int from, int to, DoubleBinaryOperator operator) {
+        double result = get(from);
+        for (int i = from + 1; i < to; ) {
+
+            // Reduces the part of the range that lies in the segment of row i directly on that segment.
+
+            DoubleBuffer segment = this.segments[i >>> SEGMENT_SHIFT];
+            int start = i & SEGMENT_MASK;
+            int end = Math.min(to - i + start, SEGMENT_SIZE);
+            for (int k = start; k < end; k++) {
+                result = operator.applyAsDouble(result, segment.get(k));
+            }
+            i += end - start;
+        }
+        return result;
+    }
+}
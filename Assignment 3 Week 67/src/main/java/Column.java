@@ -0,0 +1,98 @@
+/**
+ * This interface provides the storage of a single column of a MixedDataFrame, which holds a fixed number of values of
+ * one ColumnType. Every kind of column stores its values in primitive form, and only boxes a value when it is read or
+ * written as an object.
+ *
+ * Any value of a column can be missing, in which case it is read as null. As with DoubleColumn, the methods of a column
+ * do not check the row index against the number of rows of the DataFrame.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public interface Column {
+
+    /**
+     * @return the number of values stored in this column
+     */
+
+    int size();
+
+    /**
+     * @return the type of the values of this column
+     */
+
+    ColumnType getType();
+
+    /**
+     * @param row the row index of the value
+     * @return whether the value at the row is present
+     */
+
+    boolean isValid(int row);
+
+    /**
+     * Gets the value stored at a row as an object.
+     *
+     * @param row the row index of the value
+     * @return the value stored at the row, or null if the value is missing
+     */
+
+    Object getObject(int row);
+
+    /**
+     * Sets the value stored at a row from an object, which makes the value present.
+     *
+     * @param row the row index of the value
+     * @param value the new value, which must be of the type of this column
+     * @throws ClassCastException if the value is not of the type of this column
+     */
+
+    void setObject(int row, Object value) throws ClassCastException;
+
+    /**
+     * Marks the value at a row as missing.
+     *
+     * @param row the row index of the value
+     * @throws UnsupportedOperationException if this column can not hold missing values
+     */
+
+    void setMissing(int row) throws UnsupportedOperationException;
+
+    /**
+     * Gets the value stored at a row as a double. Booleans are read as 1 and 0.
+     *
+     * @param row the row index of the value
+     * @return the value stored at the row, or NaN if the value is missing
+     * @throws UnsupportedOperationException if the values of this column are not numeric
+     */
+
+    double getAsDouble(int row) throws UnsupportedOperationException;
+
+    /**
+     * @return whether the values of this column can not be written to, in which case the DataFrame writes to a copy
+     */
+
+    default boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Creates a writable copy of the first values of this column. If the copy is longer than this column, the
+     * additional values are those of a new column of the same type.
+     *
+     * @param length the number of values of the copy
+     * @return a new column that shares no storage with this column
+     */
+
+    Column copy(int length);
+
+    /**
+     * Creates a new column with the values at the given rows of this column.
+     *
+     * @param rows the row indices of the values to gather
+     * @param count the number of row indices to use
+     * @return a new column with count values
+     */
+
+    Column gather(int[] rows, int count);
+}
@@ -0,0 +1,153 @@
+/**
+ * This class chooses the most compact encoding for the values of a column. A single pass over the values counts the
+ * runs of equal values, the distinct values up to the size of a dictionary, and the range of the values if they are
+ * all whole numbers. The encoding that takes the fewest bytes is used, but only if it takes at most half of the bytes
+ * of the plain values; otherwise the column is left as it is.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+final class ColumnEncoder {
+
+    // Values beyond this magnitude are not all whole numbers that a long and a double represent exactly.
+
+    private static final double MAX_EXACT = 1L << 53;
+
+    private ColumnEncoder() {
+    }
+
+    /**
+     * Encodes the first values of a column in its most compact encoding.
+     *
+     * @param column the column to encode
+     * @param rowCount the number of values to encode
+     * @return an encoded column with rowCount values, or the original column if no encoding saves enough memory
+     */
+
+    static DoubleColumn encode(DoubleColumn column, int rowCount) {
+        if (rowCount == 0) {
+            return column;
+        }
+
+        // Collects the statistics of all encodings in a single pass. Negative zero and the payload of NaN are only
+        // preserved by the plain values, so a dictionary is not used for them.
+
+        int runs = 1;
+        boolean whole = true;
+        long min = 0;
+        long max = 0;
+        DoubleIntHashMap distinct = new DoubleIntHashMap(DictionaryColumn.MAX_DICTIONARY_SIZE);
+        boolean dictionary = true;
+        double previous = column.get(0);
+        for (int i = 0; i < rowCount; i++) {
+            double value = column.get(i);
+            if (i > 0 && Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(previous)) {
+                runs++;
+            }
+            previous = value;
+            if (whole) {
+                whole = value == Math.rint(value) && Math.abs(value) < MAX_EXACT && Double.doubleToRawLongBits(value) != Long.MIN_VALUE;
+                min = i == 0 ? (long) value : Math.min(min, (long) value);
+                max = i == 0 ? (long) value : Math.max(max, (long) value);
+            }
+            if (dictionary) {
+                dictionary = distinct.size() <= DictionaryColumn.MAX_DICTIONARY_SIZE
+                        && Double.doubleToRawLongBits(value) == Double.doubleToLongBits(value + 0.0);
+                distinct.getOrAdd(value);
+            }
+        }
+        dictionary = dictionary && distinct.size() <= DictionaryColumn.MAX_DICTIONARY_SIZE;
+
+        // Compares the sizes of the encodings with the size of the plain values.
+
+        long range = max - min;
+        int width = !whole ? 0 : range < (1L << 8) ? 1 : range < (1L << 16) ? 2 : range < (1L << 32) ? 4 : 0;
+        long runLengthSize = 12L * runs;
+        long referenceSize = width == 0 ? Long.MAX_VALUE : (long) width * rowCount;
+        long dictionarySize = dictionary ? rowCount + 8L * distinct.size() : Long.MAX_VALUE;
+        long best = Math.min(runLengthSize, Math.min(referenceSize, dictionarySize));
+        if (best > 4L * rowCount) {
+            return column;
+        }
+
+        if (best == runLengthSize) {
+            return runLength(column, rowCount, runs);
+        }
+        else if (best == referenceSize) {
+            return frameOfReference(column, rowCount, min, width);
+        }
+        else {
+            return dictionary(column, rowCount, distinct);
+        }
+    }
+
+    /**
+     * @param column the column to encode
+     * @param rowCount the number of values to encode
+     * @param runs the number of runs of equal values
+     * @return a run-length encoded column
+     */
+
+    private static RunLengthColumn runLength(DoubleColumn column, int rowCount, int runs) {
+        double[] values = new double[runs];
+        int[] ends = new int[runs];
+        int run = 0;
+        values[0] = column.get(0);
+        for (int i = 1; i < rowCount; i++) {
+            double value = column.get(i);
+            if (Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(values[run])) {
+                ends[run] = i;
+                run++;
+                values[run] = value;
+            }
+        }
+        ends[run] = rowCount;
+        return new RunLengthColumn(values, ends);
+    }
+
+    /**
+     * @param column the column to encode, whose values are all whole numbers
+     * @param rowCount the number of values to encode
+     * @param reference the smallest value
+     * @param width the number of bytes in which every difference from the reference fits
+     * @return a column stored relative to the reference
+     */
+
+    private static FrameOfReferenceColumn frameOfReference(DoubleColumn column, int rowCount, long reference, int width) {
+        byte[] bytes = width == 1 ? new byte[rowCount] : null;
+        short[] shorts = width == 2 ? new short[rowCount] : null;
+        int[] ints = width == 4 ? new int[rowCount] : null;
+        for (int i = 0; i < rowCount; i++) {
+            long offset = (long) column.get(i) - reference;
+            if (width == 1) {
+                bytes[i] = (byte) offset;
+            }
+            else if (width == 2) {
+                shorts[i] = (short) offset;
+            }
+            else {
+                ints[i] = (int) offset;
+            }
+        }
+        return new FrameOfReferenceColumn(reference, bytes, shorts, ints);
+    }
+
+    /**
+     * @param column the column to encode
+     * @param rowCount the number of values to encode
+     * @param distinct the distinct values of the column, in the order of their ids
+     * @return a dictionary encoded column
+     */
+
+    private static DictionaryColumn dictionary(DoubleColumn column, int rowCount, DoubleIntHashMap distinct) {
+        double[] dictionary = new double[distinct.size()];
+        for (int code = 0; code < dictionary.length; code++) {
+            dictionary[code] = distinct.keyAt(code);
+        }
+        byte[] codes = new byte[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            codes[i] = (byte) distinct.get(column.get(i));
+        }
+        return new DictionaryColumn(dictionary, codes);
+    }
+}
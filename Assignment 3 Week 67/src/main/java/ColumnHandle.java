@@ -0,0 +1,64 @@
+/**
+ * This class provides a handle to a column of a DoubleDataFrame. The name of the column is resolved to its position
+ * once, after which the handle can be used to read and write values without looking up the name again.
+ * A handle can only be used on the DataFrame that created it.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public final class ColumnHandle {
+
+    private final DoubleDataFrame frame;
+    private final String name;
+    private final int index;
+
+    /**
+     * Constructs a handle for a column. Handles are obtained via DoubleDataFrame.columnIndex.
+     *
+     * @param frame the dataframe the column belongs to
+     * @param name the name of the column
+     * @param index the position of the column in the dataframe
+     */
+
+    ColumnHandle(DoubleDataFrame frame, String name, int index) {
+        this.frame = frame;
+        this.name = name;
+        this.index = index;
+    }
+
+    /**
+     * @return the dataframe this handle belongs to
+     */
+
+    DoubleDataFrame getFrame() {
+        return this.frame;
+    }
+
+    /**
+     * @return the name of the column
+     */
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the position of the column in the dataframe
+     */
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return A String with the name and position of the column
+     */
+
+    @Override
+    public String toString() {
+        return "ColumnHandle{" +
+                "name=" + name +
+                ", index=" + index +
+                '}';
+    }
+}
@@ -0,0 +1,330 @@
+import java.util.function.DoubleBinaryOperator;
+
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
+
+/**
+ * This class keeps running aggregates of the present values of a column: their number, sum, sum of squares, minimum
+ * and maximum. A DoubleDataFrame computes the aggregates of a column on the first request and then updates them with
+ * every value that is written to the column, so repeated summaries of a column that barely changes do not scan it again.
+ * The version counts the writes to the column since its aggregates were first requested.
+ *
+ * The sums are kept relative to a shift, the first finite value of the column, which keeps the variance accurate for
+ * values with a large mean. NaN values are counted, but left out of the sums and extremes, which read as NaN as long as
+ * the column holds a NaN, as a full scan would give. Overwriting the minimum, the maximum or an infinite value can not
+ * be undone incrementally, so it marks the aggregates as stale and the next request scans the column again.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public final class ColumnStatistics implements StatisticalSummary {
+
+    /**
+     * Summary operators that DoubleDataFrame.summarizeDouble answers from the aggregates instead of reducing the columns.
+     */
+
+    public static final DoubleBinaryOperator SUM = Double::sum;
+    public static final DoubleBinaryOperator MIN = Math::min;
+    public static final DoubleBinaryOperator MAX = Math::max;
+
+    private static final int SCAN_CHUNK_SIZE = 1 << 16;
+
+    private double shift;
+    private long count;
+    private long nanCount;
+    private double sum;
+    private double sumOfSquares;
+    private double min;
+    private double max;
+    private long version;
+    private boolean stale;
+
+    /**
+     * Constructs aggregates that are stale, so they are computed on the first request.
+     */
+
+    ColumnStatistics() {
+        this.stale = true;
+    }
+
+    /**
+     * Constructs empty aggregates with the given shift.
+     *
+     * @param shift the value that is subtracted from every value before it is added to the sums
+     */
+
+    private ColumnStatistics(double shift) {
+        this.shift = shift;
+        this.min = Double.POSITIVE_INFINITY;
+        this.max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @return a copy of these aggregates, which does not change with later writes to the column
+     */
+
+    ColumnStatistics snapshot() {
+        ColumnStatistics copy = new ColumnStatistics(this.shift);
+        copy.count = this.count;
+        copy.nanCount = this.nanCount;
+        copy.sum = this.sum;
+        copy.sumOfSquares = this.sumOfSquares;
+        copy.min = this.min;
+        copy.max = this.max;
+        copy.version = this.version;
+        copy.stale = this.stale;
+        return copy;
+    }
+
+    /**
+     * @return whether the aggregates must be computed again before they can be read
+     */
+
+    boolean isStale() {
+        return this.stale;
+    }
+
+    /**
+     * Computes the aggregates of a column again, keeping the version. The rows are scanned in chunks in parallel, whose
+     * aggregates are combined in order.
+     *
+     * @param column the column to scan
+     * @param rowCount the number of rows of the column
+     */
+
+    void refresh(DoubleColumn column, int rowCount) {
+
+        // Shifts every value by the first finite value, so all chunks can be added up.
+
+        double firstFinite = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (column.isValid(i) && Double.isFinite(column.get(i))) {
+                firstFinite = column.get(i);
+                break;
+            }
+        }
+        double chosenShift = firstFinite;
+
+        int chunks = ParallelTools.chunkCount(rowCount, SCAN_CHUNK_SIZE);
+        ColumnStatistics[] partials = new ColumnStatistics[chunks];
+        ParallelTools.forEachChunk(chunks, 1, (from, to) -> {
+            for (int chunk = from; chunk < to; chunk++) {
+                ColumnStatistics partial = new ColumnStatistics(chosenShift);
+                int end = Math.min(rowCount, (chunk + 1) * SCAN_CHUNK_SIZE);
+                int i = chunk * SCAN_CHUNK_SIZE;
+                while (i < end) {
+                    int missing = column.nextMissing(i, end);
+                    for (; i < missing; i++) {
+                        partial.add(column.get(i));
+                    }
+                    i = missing + 1;
+                }
+                partials[chunk] = partial;
+            }
+        });
+
+        // Combines the chunks into these aggregates.
+
+        ColumnStatistics total = new ColumnStatistics(chosenShift);
+        for (ColumnStatistics partial : partials) {
+            total.count += partial.count;
+            total.nanCount += partial.nanCount;
+            total.sum += partial.sum;
+            total.sumOfSquares += partial.sumOfSquares;
+            total.min = Math.min(total.min, partial.min);
+            total.max = Math.max(total.max, partial.max);
+        }
+        this.shift = total.shift;
+        this.count = total.count;
+        this.nanCount = total.nanCount;
+        this.sum = total.sum;
+        this.sumOfSquares = total.sumOfSquares;
+        this.min = total.min;
+        this.max = total.max;
+        this.stale = false;
+    }
+
+    /**
+     * Records that the value at a row of the column is overwritten.
+     *
+     * @param wasPresent whether the old value was present
+     * @param oldValue the old value
+     * @param present whether the new value is present
+     * @param value the new value
+     */
+
+    void replace(boolean wasPresent, double oldValue, boolean present, double value) {
+        this.version++;
+        if (this.stale) {
+            return;
+        }
+        if (wasPresent && !remove(oldValue)) {
+            this.stale = true;
+            return;
+        }
+        if (present) {
+            add(value);
+        }
+    }
+
+    /**
+     * Records that any number of values of the column may have changed, such as the values of a computed column whose
+     * source changed, which marks the aggregates as stale.
+     */
+
+    void invalidate() {
+        this.version++;
+        this.stale = true;
+    }
+
+    /**
+     * Adds a present value to the aggregates.
+     *
+     * @param value the value
+     */
+
+    private void add(double value) {
+        this.count++;
+        if (Double.isNaN(value)) {
+            this.nanCount++;
+            return;
+        }
+        double shifted = value - this.shift;
+        this.sum += shifted;
+        this.sumOfSquares += shifted * shifted;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Removes a present value from the aggregates, if that can be done incrementally.
+     *
+     * @param value the value
+     * @return false if the value is an extreme or infinite, so the aggregates must be computed again
+     */
+
+    private boolean remove(double value) {
+        if (Double.isNaN(value)) {
+            this.count--;
+            this.nanCount--;
+            return true;
+        }
+        if (Double.isInfinite(value) || value == this.min || value == this.max) {
+            return false;
+        }
+        double shifted = value - this.shift;
+        this.count--;
+        this.sum -= shifted;
+        this.sumOfSquares -= shifted * shifted;
+        return true;
+    }
+
+    /**
+     * Gives the summary of the column for one of the operators SUM, MIN and MAX.
+     *
+     * @param operator the operator
+     * @return the summary, or null if the column has no present values
+     * @throws IllegalArgumentException when the operator is not SUM, MIN or MAX
+     */
+
+    Double summarize(DoubleBinaryOperator operator) throws IllegalArgumentException {
+        if (this.count == 0) {
+            return null;
+        }
+        if (operator == SUM) {
+            return getSum();
+        }
+        else if (operator == MIN) {
+            return getMin();
+        }
+        else if (operator == MAX) {
+            return getMax();
+        }
+        throw new IllegalArgumentException("No aggregate for this operator");
+    }
+
+    /**
+     * @return the number of writes to the column since its aggregates were first requested
+     */
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return the number of present values, including NaN values
+     */
+
+    @Override
+    public long getN() {
+        return this.count;
+    }
+
+    /**
+     * @return the number of values that are added up
+     */
+
+    private long numbers() {
+        return this.count - this.nanCount;
+    }
+
+    @Override
+    public double getSum() {
+        return this.nanCount > 0 ? Double.NaN : this.sum + numbers() * this.shift;
+    }
+
+    /**
+     * @return the sum of the squares of the present values
+     */
+
+    public double getSumOfSquares() {
+        if (this.nanCount > 0) {
+            return Double.NaN;
+        }
+        return this.sumOfSquares + this.shift * (2 * this.sum + numbers() * this.shift);
+    }
+
+    @Override
+    public double getMean() {
+        if (this.nanCount > 0 || numbers() == 0) {
+            return Double.NaN;
+        }
+        return getSum() / numbers();
+    }
+
+    /**
+     * @return the sample variance of the present values, with denominator n - 1
+     */
+
+    @Override
+    public double getVariance() {
+        long n = numbers();
+        if (this.nanCount > 0 || n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return 0;
+        }
+        return Math.max(0, (this.sumOfSquares - this.sum * this.sum / n) / (n - 1));
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public double getMin() {
+        return this.nanCount > 0 || numbers() == 0 ? Double.NaN : this.min;
+    }
+
+    @Override
+    public double getMax() {
+        return this.nanCount > 0 || numbers() == 0 ? Double.NaN : this.max;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnStatistics{n=" + getN() + ", sum=" + getSum() + ", min=" + getMin() + ", max=" + getMax()
+                + ", mean=" + getMean() + ", variance=" + getVariance() + ", version=" + this.version + "}";
+    }
+}
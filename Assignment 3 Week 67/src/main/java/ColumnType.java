@@ -0,0 +1,80 @@
+/**
+ * The kinds of values a column of a MixedDataFrame can hold, each with its own compact storage.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public enum ColumnType {
+
+    /**
+     * Double precision values, stored in a DoubleColumn.
+     */
+
+    DOUBLE {
+        @Override
+        public Column newColumn(int length) {
+            return new ArrayColumn(length);
+        }
+    },
+
+    /**
+     * 32-bit integers, stored in an IntColumn.
+     */
+
+    INT {
+        @Override
+        public Column newColumn(int length) {
+            return new IntColumn(length);
+        }
+    },
+
+    /**
+     * 64-bit integers, stored in a LongColumn.
+     */
+
+    LONG {
+        @Override
+        public Column newColumn(int length) {
+            return new LongColumn(length);
+        }
+    },
+
+    /**
+     * Booleans, stored as one bit per value in a BooleanColumn.
+     */
+
+    BOOLEAN {
+        @Override
+        public Column newColumn(int length) {
+            return new BooleanColumn(length);
+        }
+    },
+
+    /**
+     * Strings, stored as codes into a dictionary of distinct strings in a StringColumn.
+     */
+
+    STRING {
+        @Override
+        public Column newColumn(int length) {
+            return new StringColumn(length);
+        }
+    };
+
+    /**
+     * Allocates a column of this type. Numeric and boolean values are 0 and false, strings are missing.
+     *
+     * @param length the number of values
+     * @return a new column of this type
+     */
+
+    public abstract Column newColumn(int length);
+
+    /**
+     * @return whether the values of this type can be read as doubles
+     */
+
+    public boolean isNumeric() {
+        return this != STRING;
+    }
+}
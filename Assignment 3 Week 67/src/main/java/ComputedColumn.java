@@ -0,0 +1,437 @@
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+
+/**
+ * This class provides a virtual column of a DoubleDataFrame, whose values are computed by a function of the other
+ * values in the same row. Nothing is computed when the column is defined: the rows are computed in chunks, on the first
+ * access to a row of the chunk, and the computed chunks are kept.
+ *
+ * The function sees the columns that the DataFrame had when the column was defined, and the column records which of
+ * them the function actually reads. A write to one of those columns drops the chunk of the written row, so it is
+ * computed again on the next access, while writes to other columns keep every chunk. A DataFrame that shares the column
+ * but lacks one of those columns, such as a projection, shares the storage of the missing column instead, which is
+ * copied by whichever DataFrame writes to it first, so the function keeps seeing the same values.
+ *
+ * A computed column is read-only: the first write to it makes the DataFrame compute every row into a writable column.
+ * A DataFrame that shares the column gets its own copy of the computed chunks, so writes to either DataFrame do not
+ * affect the other.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class ComputedColumn extends DoubleColumn {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private final Function<DataVector<Double>, Double> function;
+    private final List<String> sources;
+    private final Map<String, Integer> sourcePositions;
+    private final int size;
+    private final Chunk[] chunks;
+    private final BitSet read;
+    private DoubleDataFrame frame;
+    private int[] sourceIndices;
+    private DoubleColumn[] detached;
+
+    /**
+     * Constructs a column that is not computed yet. The column can only be read once a DataFrame has bound it.
+     *
+     * @param function the function that computes the value of a row, or null if the value is missing
+     * @param sources the names of the columns the function may read
+     * @param size the number of rows
+     */
+
+    ComputedColumn(Function<DataVector<Double>, Double> function, List<String> sources, int size) {
+        this(function, sources, size, new Chunk[(size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT], new BitSet());
+    }
+
+    /**
+     * Constructs a column on top of chunks that were already computed.
+     *
+     * @param function the function that computes the value of a row, or null if the value is missing
+     * @param sources the names of the columns the function may read
+     * @param size the number of rows
+     * @param chunks the computed chunks, with null for the chunks that are not computed yet
+     * @param read the positions in sources of the columns that the computed chunks read from
+     */
+
+    private ComputedColumn(Function<DataVector<Double>, Double> function, List<String> sources, int size, Chunk[] chunks, BitSet read) {
+        this.function = function;
+        this.sources = Collections.unmodifiableList(sources);
+        this.sourcePositions = new HashMap<>();
+        this.size = size;
+        this.chunks = chunks;
+        this.read = read;
+
+        for (int s = 0; s < sources.size(); s++) {
+            this.sourcePositions.put(sources.get(s), s);
+        }
+    }
+
+    /**
+     * Binds this column to the DataFrame that holds it, which is the DataFrame the function reads from. A column that
+     * is already bound to another DataFrame is copied, along with the chunks that are computed. A source column that
+     * the holder lacks is read from its storage in the DataFrame the column was bound to, which shares that storage
+     * with this column from then on.
+     *
+     * @param holder the DataFrame that holds the column
+     * @return a column that is bound to the DataFrame
+     */
+
+    DoubleColumn bind(DoubleDataFrame holder) {
+        if (this.frame == holder) {
+            return this;
+        }
+        int[] indices = new int[this.sources.size()];
+        DoubleColumn[] storage = new DoubleColumn[indices.length];
+        for (int s = 0; s < indices.length; s++) {
+            indices[s] = holder.findColumn(this.sources.get(s));
+            if (indices[s] >= 0) {
+                continue;
+            }
+            storage[s] = this.sourceIndices[s] < 0 ? this.detached[s] : this.frame.shareColumn(this.sourceIndices[s]);
+
+            // A computed source changes with the columns of its own DataFrame, so its current values are copied.
+
+            if (storage[s] instanceof ComputedColumn) {
+                storage[s] = storage[s].copy(this.size);
+            }
+        }
+        ComputedColumn bound = this;
+        if (this.frame != null) {
+            bound = new ComputedColumn(this.function, this.sources, this.size, this.chunks.clone(), (BitSet) this.read.clone());
+        }
+        bound.frame = holder;
+        bound.sourceIndices = indices;
+        bound.detached = storage;
+        return bound;
+    }
+
+    /**
+     * Drops the computed chunks of a range of rows if the function read them from a column.
+     *
+     * @param colIndex the position of the changed column in the DataFrame
+     * @param from the row index of the first changed value
+     * @param to the row index after the last changed value
+     * @return whether the function reads from the column, so the values of the range may have changed
+     */
+
+    boolean sourceChanged(int colIndex, int from, int to) {
+        for (int s = 0; s < this.sourceIndices.length; s++) {
+            if (this.sourceIndices[s] == colIndex && this.read.get(s)) {
+                if (from < to) {
+                    for (int chunk = from >>> CHUNK_SHIFT; chunk <= (to - 1) >>> CHUNK_SHIFT; chunk++) {
+                        this.chunks[chunk] = null;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param index the position of the chunk
+     * @return the chunk, which is computed first if it was not computed yet
+     */
+
+    private Chunk chunk(int index) {
+        Chunk chunk = this.chunks[index];
+        if (chunk != null) {
+            return chunk;
+        }
+
+        // A sequential DataFrame promises to call the function from a single thread at a time, even when a summary
+        // reads the chunks in parallel.
+
+        if (this.frame.isParallel()) {
+            chunk = compute(index);
+        }
+        else {
+            synchronized (this) {
+                chunk = this.chunks[index];
+                if (chunk == null) {
+                    chunk = compute(index);
+                }
+            }
+        }
+        this.chunks[index] = chunk;
+        return chunk;
+    }
+
+    /**
+     * Computes the values of a chunk of rows and records which columns the function read.
+     *
+     * @param index the position of the chunk
+     * @return the computed chunk
+     */
+
+    private Chunk compute(int index) {
+        int from = index << CHUNK_SHIFT;
+        int to = Math.min(this.size, from + CHUNK_SIZE);
+        double[] values = new double[to - from];
+        long[] validity = null;
+        BitSet reads = new BitSet();
+        for (int i = from; i < to; i++) {
+            Double value = this.function.apply(new SourceRow(i, reads));
+            if (value != null) {
+                values[i - from] = value;
+            }
+            else {
+                if (validity == null) {
+                    validity = Bitmaps.allSet(values.length);
+                }
+                Bitmaps.set(validity, i - from, false);
+                values[i - from] = Double.NaN;
+            }
+        }
+        synchronized (this.read) {
+            this.read.or(reads);
+        }
+        return new Chunk(values, validity);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public double get(int row) {
+        return chunk(row >>> CHUNK_SHIFT).values[row & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, since computed columns are read-only
+     */
+
+    @Override
+    public void set(int row, double value) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Computed column is read-only");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean isValid(int row) {
+        long[] validity = chunk(row >>> CHUNK_SHIFT).validity;
+        return validity == null || Bitmaps.get(validity, row & (CHUNK_SIZE - 1));
+    }
+
+    @Override
+    public int nextMissing(int from, int to) {
+        int row = from;
+        while (row < to) {
+            int index = row >>> CHUNK_SHIFT;
+            int end = Math.min(to, (index + 1) << CHUNK_SHIFT);
+            long[] validity = chunk(index).validity;
+            if (validity != null) {
+                for (; row < end; row++) {
+                    if (!Bitmaps.get(validity, row & (CHUNK_SIZE - 1))) {
+                        return row;
+                    }
+                }
+            }
+            row = end;
+        }
+        return to;
+    }
+
+    @Override
+    public void copyTo(int from, double[] dst, int offset, int length) {
+        int row = from;
+        int end = from + length;
+        while (row < end) {
+            int index = row >>> CHUNK_SHIFT;
+            int count = Math.min(end, (index + 1) << CHUNK_SHIFT) - row;
+            System.arraycopy(chunk(index).values, row & (CHUNK_SIZE - 1), dst, offset + row - from, count);
+            row += count;
+        }
+    }
+
+    /**
+     * Computes the first values of this column into a writable column on the heap, with a validity bitmap if a value
+     * is missing. If the copy is longer than this column, the additional values are 0 and present.
+     *
+     * @param length the number of values of the copy
+     * @return a new column that shares no storage with this column
+     */
+
+    @Override
+    public DoubleColumn copy(int length) {
+        double[] values = new double[length];
+        int kept = Math.min(length, this.size);
+        copyTo(0, values, 0, kept);
+        DoubleColumn copied = new ArrayColumn(values);
+        int missing = nextMissing(0, kept);
+        if (missing == kept) {
+            return copied;
+        }
+        NullableColumn nullable = new NullableColumn(copied);
+        for (; missing < kept; missing = nextMissing(missing + 1, kept)) {
+            nullable.setMissing(missing);
+        }
+        return nullable;
+    }
+
+    @Override
+    public DoubleColumn gather(int[] rows, int count) {
+        double[] values = new double[count];
+        NullableColumn nullable = null;
+        for (int i = 0; i < count; i++) {
+            values[i] = get(rows[i]);
+            if (!isValid(rows[i])) {
+                if (nullable == null) {
+                    nullable = new NullableColumn(new ArrayColumn(values));
+                }
+                nullable.setMissing(i);
+            }
+        }
+        return nullable == null ? new ArrayColumn(values) : nullable;
+    }
+
+    /**
+     * Reduces the present values of a range with an operator, starting from the first present value of the range.
+     *
+     * @param from the row index of the first value
+     * @param to the row index after the last value
+     * @param operator the operator that combines two values
+     * @return the reduced value, or NaN if every value in the range is missing
+     */
+
+    @Override
+    public double reduce(int from, int to, DoubleBinaryOperator operator) {
+        int i = from;
+        while (i < to && !isValid(i)) {
+            i++;
+        }
+        if (i == to) {
+            return Double.NaN;
+        }
+        double result = get(i);
+        for (i++; i < to; i++) {
+            if (isValid(i)) {
+                result = operator.applyAsDouble(result, get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The computed values of a chunk of rows. A chunk is never changed once it is computed, so it can be shared by
+     * the copies of a column.
+     */
+
+    private static final class Chunk {
+
+        private final double[] values;
+        private final long[] validity;
+
+        /**
+         * @param values the values of the rows, with NaN for missing values
+         * @param validity the bitmap of the present values, or null if every value is present
+         */
+
+        private Chunk(double[] values, long[] validity) {
+            this.values = values;
+            this.validity = validity;
+        }
+    }
+
+    /**
+     * The row that the function of the column sees, which holds the source columns only and records which of them
+     * are read.
+     */
+
+    private final class SourceRow implements DataVector<Double> {
+
+        private final int row;
+        private final BitSet reads;
+
+        /**
+         * @param row the index of the row in the DataFrame
+         * @param reads the set in which the positions of the read source columns are recorded
+         */
+
+        private SourceRow(int row, BitSet reads) {
+            this.row = row;
+            this.reads = reads;
+        }
+
+        /**
+         * @param s the position of a source column
+         * @return the value of the source column in this row, or null if it is missing
+         */
+
+        private Double read(int s) {
+            this.reads.set(s);
+            if (sourceIndices[s] >= 0) {
+                return frame.valueOrNull(this.row, sourceIndices[s]);
+            }
+            DoubleColumn storage = detached[s];
+            return storage.isValid(this.row) ? storage.get(this.row) : null;
+        }
+
+        @Override
+        public String getName() {
+            return "row_" + this.row;
+        }
+
+        @Override
+        public List<String> getEntryNames() {
+            return sources;
+        }
+
+        @Override
+        public Double getValue(String entryName) {
+            Integer s = sourcePositions.get(entryName);
+            return s == null ? null : read(s);
+        }
+
+        @Override
+        public List<Double> getValues() {
+            return new AbstractList<Double>() {
+                @Override
+                public Double get(int index) {
+                    if (index < 0 || index >= size()) {
+                        throw new IndexOutOfBoundsException("Invalid index");
+                    }
+                    return read(index);
+                }
+
+                @Override
+                public int size() {
+                    return sources.size();
+                }
+            };
+        }
+
+        @Override
+        public Map<String, Double> asMap() {
+            Map<String, Double> map = new LinkedHashMap<>();
+            for (int s = 0; s < sources.size(); s++) {
+                map.put(sources.get(s), read(s));
+            }
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return "SourceRow{" +
+                    "name=" + getName() +
+                    ", vector=" + asMap() +
+                    '}';
+        }
+    }
+}
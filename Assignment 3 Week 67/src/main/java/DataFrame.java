@@ -1,3 +1,5 @@
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -177,6 +179,68 @@ public interface DataFrame<E> extends Iterable<DataVector<E>>
 		throw new UnsupportedOperationException("Not supported");
 	}
 
+	/**
+	 * Starts a lazy query plan on this data frame. The operations select, project
+	 * and computeColumn on the plan are only recorded, and are executed in a single
+	 * pass over the rows when the plan is collected.
+	 * 
+	 * @return a LazyDataFrame that reads from this data frame
+	 * @throws UnsupportedOperationException if lazy execution is not available
+	 */
+	public default LazyDataFrame lazy() throws UnsupportedOperationException
+	{
+		throw new UnsupportedOperationException("Not supported");
+	}
+
+	/**
+	 * Creates a new data frame with the rows of this data frame sorted in
+	 * ascending order by the given columns. Rows with equal values in the first
+	 * column are ordered by the second column, etcetera, and rows that are equal in
+	 * all given columns keep their original order.
+	 * 
+	 * @param columns the names of the columns to sort by, most significant first
+	 * @return a newly created sorted data frame
+	 * @throws IllegalArgumentException      if a column name is illegal
+	 * @throws UnsupportedOperationException if sorting is not available
+	 */
+	public default DataFrame<E> sortBy(String... columns) throws IllegalArgumentException, UnsupportedOperationException
+	{
+		throw new UnsupportedOperationException("Not supported");
+	}
+
+	/**
+	 * Creates a new data frame with the rows of this data frame sorted by a single
+	 * column. Rows with equal values keep their original order.
+	 * 
+	 * @param column     the name of the column to sort by
+	 * @param descending whether the rows should be sorted in descending order
+	 * @return a newly created sorted data frame
+	 * @throws IllegalArgumentException      if the column name is illegal
+	 * @throws UnsupportedOperationException if sorting is not available
+	 */
+	public default DataFrame<E> sortBy(String column, boolean descending)
+			throws IllegalArgumentException, UnsupportedOperationException
+	{
+		throw new UnsupportedOperationException("Not supported");
+	}
+
+	/**
+	 * Starts a chunked scan over a binary data frame file that may be larger than
+	 * the available memory. The file is processed one chunk of rows at a time,
+	 * and the results of the chunks are merged at the end.
+	 * 
+	 * @param file      a file written by FileTools.writeBinary
+	 * @param chunkRows the maximum number of rows held in memory at once
+	 * @return a DataFrameScan over the rows of the file
+	 * @throws IOException              if the file cannot be read or is not a
+	 *                                  binary data frame file
+	 * @throws IllegalArgumentException if chunkRows is not positive
+	 */
+	public static DataFrameScan scan(File file, int chunkRows) throws IOException, IllegalArgumentException
+	{
+		return new DataFrameScan(file, chunkRows);
+	}
+
 	/**
 	 * Obtains an object that can be used to perform visualization of the data in
 	 * this data frame.
@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * This class builds a DoubleDataFrame whose number of rows is not known in advance. The values are stored column by
+ * column in arrays of primitive doubles, whose capacity is doubled whenever they are full, so appending a row takes
+ * constant amortized time. Rows are validated once per row or per block of rows, never per value.
+ *
+ * Building hands the arrays over to the DataFrame without copying them, unless they have spare capacity, after which
+ * the builder is empty again and can be used to build another DataFrame with the same columns.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public final class DataFrameBuilder {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final List<String> columnNames;
+    private final int initialCapacity;
+    private double[][] columns;
+    private int rowCount;
+
+    /**
+     * Constructs an empty builder for a DataFrame with the given columns.
+     *
+     * @param columnNames the names for the columns
+     * @throws IllegalArgumentException if a column name is duplicated
+     */
+
+    public DataFrameBuilder(List<String> columnNames) throws IllegalArgumentException {
+        this(columnNames, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty builder for a DataFrame with the given columns, with room for a number of rows before the
+     * first time the columns grow.
+     *
+     * @param columnNames the names for the columns
+     * @param initialCapacity the number of rows to allocate room for
+     * @throws IllegalArgumentException if a column name is duplicated or the capacity is negative
+     */
+
+    public DataFrameBuilder(List<String> columnNames, int initialCapacity) throws IllegalArgumentException {
+        if (new HashSet<>(columnNames).size() != columnNames.size()) {
+            throw new IllegalArgumentException("Duplicate columns detected");
+        }
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Negative capacity");
+        }
+        this.columnNames = new ArrayList<>(columnNames);
+        this.initialCapacity = initialCapacity;
+        this.columns = new double[columnNames.size()][initialCapacity];
+    }
+
+    /**
+     * @return the number of rows added since the builder was created or last built
+     */
+
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param values the values of the row, one for every column, in the order of the columns
+     * @return this builder
+     * @throws IllegalArgumentException if the row does not have one value for every column
+     */
+
+    public DataFrameBuilder addRow(double... values) throws IllegalArgumentException {
+        if (values.length != this.columns.length) {
+            throw new IllegalArgumentException("Row does not have one value for every column");
+        }
+        ensureCapacity(this.rowCount + 1);
+        for (int j = 0; j < values.length; j++) {
+            this.columns[j][this.rowCount] = values[j];
+        }
+        this.rowCount++;
+        return this;
+    }
+
+    /**
+     * Appends a number of rows at once.
+     *
+     * @param rows the rows to append, each with one value for every column, in the order of the columns
+     * @return this builder
+     * @throws IllegalArgumentException if a row does not have one value for every column, in which case no row is added
+     */
+
+    public DataFrameBuilder addRows(double[][] rows) throws IllegalArgumentException {
+        for (double[] row : rows) {
+            if (row.length != this.columns.length) {
+                throw new IllegalArgumentException("Row does not have one value for every column");
+            }
+        }
+        ensureCapacity(this.rowCount + rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < this.columns.length; j++) {
+                this.columns[j][this.rowCount + i] = rows[i][j];
+            }
+        }
+        this.rowCount += rows.length;
+        return this;
+    }
+
+    /**
+     * Appends a block of rows that is given column by column, which is copied into every column with a single bulk
+     * copy.
+     *
+     * @param values one array of values for every column, in the order of the columns, all of the same length
+     * @return this builder
+     * @throws IllegalArgumentException if the number of arrays differs from the number of columns, or the arrays
+     *                                  differ in length, in which case no row is added
+     */
+
+    public DataFrameBuilder addColumns(double[][] values) throws IllegalArgumentException {
+        if (values.length != this.columns.length) {
+            throw new IllegalArgumentException("Number of column names and columns differ");
+        }
+        int length = values.length == 0 ? 0 : values[0].length;
+        for (double[] column : values) {
+            if (column.length != length) {
+                throw new IllegalArgumentException("Columns differ in length");
+            }
+        }
+        ensureCapacity(this.rowCount + length);
+        for (int j = 0; j < values.length; j++) {
+            System.arraycopy(values[j], 0, this.columns[j], this.rowCount, length);
+        }
+        this.rowCount += length;
+        return this;
+    }
+
+    /**
+     * Creates a DataFrame with the rows added so far, after which this builder is empty again.
+     *
+     * @return a DataFrame that owns the values of the rows
+     */
+
+    public DoubleDataFrame build() {
+        double[][] values = this.columns;
+        for (int j = 0; j < values.length; j++) {
+            if (values[j].length != this.rowCount) {
+                values[j] = Arrays.copyOf(values[j], this.rowCount);
+            }
+        }
+        DoubleDataFrame frame = DoubleDataFrame.fromColumns(this.columnNames, values, this.rowCount);
+        this.columns = new double[this.columnNames.size()][this.initialCapacity];
+        this.rowCount = 0;
+        return frame;
+    }
+
+    /**
+     * Grows every column to at least the given number of rows, by doubling its capacity until it fits.
+     *
+     * @param capacity the number of rows the columns should have room for
+     * @throws IllegalArgumentException if the capacity exceeds the largest possible array
+     */
+
+    private void ensureCapacity(int capacity) throws IllegalArgumentException {
+        if (capacity < 0 || capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many rows");
+        }
+        if (this.columns.length == 0 || capacity <= this.columns[0].length) {
+            return;
+        }
+        long grown = Math.max(capacity, Math.max(DEFAULT_CAPACITY, 2L * this.columns[0].length));
+        int newCapacity = (int) Math.min(grown, Integer.MAX_VALUE - 8);
+        for (int j = 0; j < this.columns.length; j++) {
+            this.columns[j] = Arrays.copyOf(this.columns[j], newCapacity);
+        }
+    }
+}
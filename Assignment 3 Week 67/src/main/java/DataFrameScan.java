@@ -0,0 +1,249 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class provides a chunked scan over a binary DataFrame file, for files that do not fit in memory. The operations
+ * select, project and computeColumn are recorded as a plan, like with a LazyDataFrame. When the scan is run, the file is
+ * opened one chunk of rows at a time, the plan is executed as a LazyDataFrame on every chunk, and the chunk is released
+ * before the next one is opened. Only the result of a single chunk is held in memory at any time.
+ *
+ * The results of the chunks are combined by the terminal operations: summarizeDouble merges the partial summaries of the
+ * chunks, forEachChunk hands every chunk result to a consumer, and collect concatenates the chunk results into a single
+ * DataFrame, which must fit in memory.
+ *
+ * A scan can be run more than once; every run reads the file again.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class DataFrameScan {
+
+    private final File file;
+    private final int chunkRows;
+    private final List<Function<LazyDataFrame, LazyDataFrame>> plan;
+
+    // A plan on an empty DataFrame with the columns of the file, to which every step is applied immediately to check
+    // it and to keep track of the resulting columns.
+
+    private final LazyDataFrame schema;
+
+    /**
+     * Constructs a scan without steps over a binary file. Scans are obtained via DataFrame.scan.
+     *
+     * @param file the binary DataFrame file to scan
+     * @param chunkRows the maximum number of rows in a chunk
+     * @throws IOException if the file cannot be read or is not a binary DataFrame file
+     * @throws IllegalArgumentException if the number of rows in a chunk is not positive
+     */
+
+    DataFrameScan(File file, int chunkRows) throws IOException, IllegalArgumentException {
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("Number of rows in a chunk must be positive");
+        }
+        this.file = file;
+        this.chunkRows = chunkRows;
+        this.plan = new ArrayList<>();
+        this.schema = FileTools.readBinary(file, 0, 0).lazy();
+    }
+
+    /**
+     * @return the names of the columns the chunk results of this scan will have
+     */
+
+    public List<String> getColumnNames() {
+        return this.schema.getColumnNames();
+    }
+
+    /**
+     * Adds a step to the scan that only keeps the rows that are accepted by the predicate.
+     *
+     * @param rowFilter a predicate that can indicate whether a row should be maintained
+     * @return this scan
+     */
+
+    public DataFrameScan select(Predicate<DataVector<Double>> rowFilter) {
+        return addStep(plan -> plan.select(rowFilter));
+    }
+
+    /**
+     * Adds a step to the scan that only keeps the given columns.
+     *
+     * @param retainColumns the names of column that should be retained
+     * @return this scan
+     * @throws IllegalArgumentException if one of the column names is not a column at this point of the scan
+     */
+
+    public DataFrameScan project(Collection<String> retainColumns) throws IllegalArgumentException {
+        List<String> retained = new ArrayList<>(retainColumns);
+        return addStep(plan -> plan.project(retained));
+    }
+
+    /**
+     * Adds a step to the scan that only keeps the given columns.
+     *
+     * @param retainColumns the names of column that should be retained
+     * @return this scan
+     * @throws IllegalArgumentException if one of the column names is not a column at this point of the scan
+     */
+
+    public DataFrameScan project(String... retainColumns) throws IllegalArgumentException {
+        return project(Arrays.asList(retainColumns));
+    }
+
+    /**
+     * Adds a step to the scan that computes a new column by applying a function to each row.
+     *
+     * @param columnName the name of the new column
+     * @param function   the function to apply to each row
+     * @return this scan
+     * @throws IllegalArgumentException if a column with this name exists at this point of the scan
+     */
+
+    public DataFrameScan computeColumn(String columnName, Function<DataVector<Double>, Double> function)
+            throws IllegalArgumentException {
+        return addStep(plan -> plan.computeColumn(columnName, function));
+    }
+
+    /**
+     * Runs the scan and gives the result of every chunk to the consumer, in the order of the rows in the file. A chunk
+     * result is not valid anymore after the consumer returns, since the rows it reads from may be released.
+     *
+     * @param consumer the consumer of the chunk results
+     * @throws IOException if the file cannot be read
+     */
+
+    public void forEachChunk(Consumer<DataFrame<Double>> consumer) throws IOException {
+        forEachChunk(FileTools.binaryRowCount(this.file), consumer);
+    }
+
+    /**
+     * Runs the scan over the given number of rows of the file and gives the result of every chunk to the consumer.
+     *
+     * @param rowCount the number of rows of the file
+     * @param consumer the consumer of the chunk results
+     * @throws IOException if the file cannot be read
+     */
+
+    private void forEachChunk(int rowCount, Consumer<DataFrame<Double>> consumer) throws IOException {
+        for (long fromRow = 0; fromRow < rowCount; fromRow += this.chunkRows) {
+            int rows = (int) Math.min(this.chunkRows, rowCount - fromRow);
+            LazyDataFrame plan = FileTools.readBinary(this.file, fromRow, rows).lazy();
+            for (Function<LazyDataFrame, LazyDataFrame> step : this.plan) {
+                plan = step.apply(plan);
+            }
+            consumer.accept(plan.collect());
+        }
+    }
+
+    /**
+     * Runs the scan and summarizes the values of all rows of every column with a primitive operator. Every chunk result
+     * is summarized on its own, after which the partial summaries are combined in the order of the chunks. As with
+     * DoubleDataFrame.summarizeDouble, the operator should be associative. The summary of a column without any rows is null.
+     *
+     * @param name            the name of the resulting data vector
+     * @param summaryFunction the associative operator that should be used to reduce the values in each column
+     * @return a DataVector which summarizes the values of all rows
+     * @throws IOException if the file cannot be read
+     */
+
+    public DataVector<Double> summarizeDouble(String name, DoubleBinaryOperator summaryFunction) throws IOException {
+
+        // Merges the partial summary of every chunk into the summaries of the previous chunks.
+
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (String column : getColumnNames()) {
+            values.put(column, null);
+        }
+        forEachChunk(result -> {
+            DataVector<Double> partial = ((DoubleDataFrame) result).summarizeDouble(name, summaryFunction);
+            for (Map.Entry<String, Double> column : values.entrySet()) {
+                Double value = partial.getValue(column.getKey());
+                if (value != null) {
+                    column.setValue(column.getValue() == null ? value
+                            : summaryFunction.applyAsDouble(column.getValue(), value));
+                }
+            }
+        });
+
+        DoubleDataVector summary = new DoubleDataVector();
+        summary.setIsRow(true);
+        summary.setRow(values.size());
+        summary.setName(name);
+        summary.setVector(values);
+        return summary;
+    }
+
+    /**
+     * Runs the scan and concatenates the results of all chunks into a single DataFrame, which must fit in memory.
+     * Columns of chunks from which no row was dropped are copied, so the result does not depend on the file anymore.
+     * Missing values of the chunk results stay missing.
+     *
+     * @return a DataFrame with the result of the scan
+     * @throws IOException if the file cannot be read
+     */
+
+    public DataFrame<Double> collect() throws IOException {
+
+        // Copies every chunk result into the result columns in place. The columns start at the size of a chunk and
+        // double in capacity when a chunk result does not fit, never beyond the number of rows of the file, so a
+        // selective scan only allocates room for the rows it keeps.
+
+        List<String> names = getColumnNames();
+        int fileRows = FileTools.binaryRowCount(this.file);
+        double[][] columns = new double[names.size()][Math.min(fileRows, this.chunkRows)];
+        BitSet[] missing = new BitSet[columns.length];
+        for (int j = 0; j < missing.length; j++) {
+            missing[j] = new BitSet();
+        }
+        int[] rowCount = new int[1];
+        forEachChunk(fileRows, result -> {
+            DoubleDataFrame chunk = (DoubleDataFrame) result;
+            int offset = rowCount[0];
+            int needed = offset + chunk.getRowCount();
+            for (int j = 0; j < columns.length; j++) {
+                if (needed > columns[j].length) {
+                    int capacity = (int) Math.min(fileRows, Math.max(needed, 2L * columns[j].length));
+                    columns[j] = Arrays.copyOf(columns[j], capacity);
+                }
+                chunk.copyColumn(j, columns[j], offset);
+                for (int i = chunk.nextMissing(j, 0); i < chunk.getRowCount(); i = chunk.nextMissing(j, i + 1)) {
+                    missing[j].set(offset + i);
+                }
+            }
+            rowCount[0] = needed;
+        });
+
+        DoubleColumn[] stored = new DoubleColumn[columns.length];
+        for (int j = 0; j < columns.length; j++) {
+            double[] values = rowCount[0] == columns[j].length ? columns[j] : Arrays.copyOf(columns[j], rowCount[0]);
+            columns[j] = null;
+            stored[j] = DoubleDataFrame.withMissing(new ArrayColumn(values), missing[j]);
+        }
+        return DoubleDataFrame.fromColumns(names, stored, rowCount[0]);
+    }
+
+    /**
+     * Checks a step on the empty plan and adds it to the steps of this scan.
+     *
+     * @param step the step, applied to the plan of a chunk
+     * @return this scan
+     * @throws IllegalArgumentException if the step is not valid at this point of the scan
+     */
+
+    private DataFrameScan addStep(Function<LazyDataFrame, LazyDataFrame> step) throws IllegalArgumentException {
+        step.apply(this.schema);
+        this.plan.add(step);
+        return this;
+    }
+}
@@ -1,8 +1,10 @@
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
 
 /**
  * A data vector represents a vector of data of a certain type. In our DataFrame
@@ -61,6 +63,77 @@ public interface DataVector<E>
 	 */
 	public Map<String, E> asMap();
 
+	/**
+	 * Gives the positions of the entries in this vector whose value is missing,
+	 * which are the entries with a null value.
+	 * 
+	 * @return a set with the positions of the missing entries
+	 */
+	public default BitSet missingEntries()
+	{
+		BitSet missing = new BitSet();
+		List<E> values = getValues();
+		for (int i = 0; i < values.size(); i++)
+		{
+			if (values.get(i) == null)
+			{
+				missing.set(i);
+			}
+		}
+		return missing;
+	}
+
+	/**
+	 * Copies the values of the entries in this vector into a new array of
+	 * primitive doubles. This requires the values to be numbers. Missing values
+	 * are stored as NaN.
+	 * 
+	 * @return an array with all values, in the order of the entries
+	 * @throws ClassCastException if the values are not numbers
+	 */
+	public default double[] toDoubleArray() throws ClassCastException
+	{
+		double[] values = new double[getValues().size()];
+		copyInto(values, 0);
+		return values;
+	}
+
+	/**
+	 * Provides the values of the entries in this vector as a stream of primitive
+	 * doubles. This requires the values to be numbers. Missing values are
+	 * provided as NaN.
+	 * 
+	 * @return a stream with all values, in the order of the entries
+	 * @throws ClassCastException if the values are not numbers
+	 */
+	public default DoubleStream doubleStream() throws ClassCastException
+	{
+		return getValues().stream().mapToDouble(v -> v == null ? Double.NaN : ((Number) v).doubleValue());
+	}
+
+	/**
+	 * Copies the values of the entries in this vector into an existing array of
+	 * primitive doubles, starting at a given position in that array. This
+	 * requires the values to be numbers. Missing values are copied as NaN.
+	 * 
+	 * @param dst    the array to copy the values into
+	 * @param offset the position in dst at which the first value is stored
+	 * @throws IndexOutOfBoundsException if the values do not fit in dst
+	 * @throws ClassCastException        if the values are not numbers
+	 */
+	public default void copyInto(double[] dst, int offset) throws IndexOutOfBoundsException, ClassCastException
+	{
+		List<E> values = getValues();
+		if (offset < 0 || offset + values.size() > dst.length)
+		{
+			throw new IndexOutOfBoundsException("Values do not fit in the destination array");
+		}
+		for (E value : values)
+		{
+			dst[offset++] = value == null ? Double.NaN : ((Number) value).doubleValue();
+		}
+	}
+
 	/**
 	 * Formats the entries stored in this vector to a fixed with using the
 	 * String.format() method. The display is always row-based: on the first line
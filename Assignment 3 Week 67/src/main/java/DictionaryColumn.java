@@ -0,0 +1,100 @@
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * This class provides a column that is dictionary encoded: the at most 256 distinct values of the column are stored
+ * once in a dictionary, and every row stores the position of its value in the dictionary as a single byte. A value
+ * takes one byte instead of eight.
+ *
+ * Range queries test every value of the dictionary once, after which the codes of the rows are matched against the
+ * result.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class DictionaryColumn extends EncodedColumn {
+
+    /**
+     * The largest number of distinct values of a dictionary.
+     */
+
+    public static final int MAX_DICTIONARY_SIZE = 256;
+
+    private final double[] dictionary;
+    private final byte[] codes;
+
+    /**
+     * Constructs a column from its dictionary and codes. The arrays are not copied.
+     *
+     * @param dictionary the distinct values of the column
+     * @param codes the position in the dictionary of the value of every row
+     */
+
+    DictionaryColumn(double[] dictionary, byte[] codes) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+    }
+
+    /**
+     * @return the number of distinct values in the dictionary
+     */
+
+    public int getDictionarySize() {
+        return this.dictionary.length;
+    }
+
+    @Override
+    public int size() {
+        return this.codes.length;
+    }
+
+    @Override
+    public double get(int row) {
+        return this.dictionary[this.codes[row] & 0xFF];
+    }
+
+    @Override
+    public long encodedSize() {
+        return this.codes.length + 8L * this.dictionary.length;
+    }
+
+    @Override
+    public void copyTo(int from, double[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = this.dictionary[this.codes[from + i] & 0xFF];
+        }
+    }
+
+    @Override
+    public DoubleColumn gather(int[] rows, int count) {
+        byte[] gathered = new byte[count];
+        for (int i = 0; i < count; i++) {
+            gathered[i] = this.codes[rows[i]];
+        }
+        return new DictionaryColumn(this.dictionary, gathered);
+    }
+
+    @Override
+    public double reduce(int from, int to, DoubleBinaryOperator operator) {
+        double result = this.dictionary[this.codes[from] & 0xFF];
+        for (int i = from + 1; i < to; i++) {
+            result = operator.applyAsDouble(result, this.dictionary[this.codes[i] & 0xFF]);
+        }
+        return result;
+    }
+
+    @Override
+    public int rowsInRange(double low, double high, int length, int[] rows) {
+        boolean[] matches = new boolean[this.dictionary.length];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = low <= this.dictionary[code] && this.dictionary[code] <= high;
+        }
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (matches[this.codes[i] & 0xFF]) {
+                rows[count] = i;
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,102 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * This class provides a column whose values are stored in direct buffers outside of the Java heap. The values of a
+ * direct column do not count towards the maximum heap size and are never scanned or moved by the garbage collector.
+ * The memory is released when the column is no longer used by any DataFrame and its buffers are collected.
+ *
+ * The total amount of direct memory is limited by the JVM option -XX:MaxDirectMemorySize, which defaults to the maximum
+ * heap size. Frames larger than the heap therefore require this option to be set.
+ *
+ * Unlike other buffer columns, copies and gathered selections of a direct column are stored outside of the heap as
+ * well.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class DirectColumn extends BufferColumn {
+
+    private static final int BLOCK_SIZE = 1 << 13;
+
+    /**
+     * Constructs a column of the given length in which every value is 0.
+     *
+     * @param length the number of values
+     */
+
+    public DirectColumn(int length) {
+        super(allocate(length), length);
+    }
+
+    /**
+     * Allocates the direct segment buffers for a column, in the native byte order of the platform.
+     *
+     * @param length the number of values
+     * @return the zero-filled segment buffers
+     */
+
+    private static DoubleBuffer[] allocate(int length) {
+        DoubleBuffer[] segments = new DoubleBuffer[segmentCount(length)];
+        for (int k = 0; k < segments.length; k++) {
+            int count = (int) Math.min(SEGMENT_SIZE, length - (long) k * SEGMENT_SIZE);
+            segments[k] = ByteBuffer.allocateDirect(8 * count).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        return segments;
+    }
+
+    /**
+     * Copies the first values of any column into a new direct column. The values pass through a small block on the
+     * heap, so the column is never copied onto the heap as a whole. If the copy is longer than the source, the
+     * additional values are 0.
+     *
+     * @param source the column to copy
+     * @param length the number of values of the copy
+     * @return a new direct column that shares no storage with the source
+     */
+
+    public static DirectColumn copyOf(DoubleColumn source, int length) {
+        DirectColumn copy = new DirectColumn(length);
+        double[] block = new double[BLOCK_SIZE];
+        int count = Math.min(length, source.size());
+        for (int from = 0; from < count; from += BLOCK_SIZE) {
+            int blockLength = Math.min(BLOCK_SIZE, count - from);
+            source.copyTo(from, block, 0, blockLength);
+            copy.copyFrom(from, block, 0, blockLength);
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a new direct column with the values at the given rows of any column.
+     *
+     * @param source the column to gather the values from
+     * @param rows the row indices of the values to gather
+     * @param count the number of row indices to use
+     * @return a new direct column with count values
+     */
+
+    public static DirectColumn gatherOf(DoubleColumn source, int[] rows, int count) {
+        DirectColumn gathered = new DirectColumn(count);
+        double[] block = new double[Math.min(BLOCK_SIZE, count)];
+        for (int from = 0; from < count; from += BLOCK_SIZE) {
+            int blockLength = Math.min(BLOCK_SIZE, count - from);
+            for (int i = 0; i < blockLength; i++) {
+                block[i] = source.get(rows[from + i]);
+            }
+            gathered.copyFrom(from, block, 0, blockLength);
+        }
+        return gathered;
+    }
+
+    @Override
+    public DoubleColumn copy(int length) {
+        return copyOf(this, length);
+    }
+
+    @Override
+    public DoubleColumn gather(int[] rows, int count) {
+        return gatherOf(this, rows, count);
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * This class provides the storage of a single column of a DoubleDataFrame. A column holds a fixed number of primitive
+ * double values that can be read and written by row index. Subclasses decide where the values live, for example in
+ * an array on the heap or in a buffer that is mapped from a file.
+ *
+ * The methods of a column do not check the row index against the number of rows of the DataFrame; that is done by the
+ * DataFrame itself.
+ *
+ * A double column is also the DOUBLE kind of column of a MixedDataFrame. A plain double column can not hold missing
+ * values; a NullableColumn adds them.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public abstract class DoubleColumn implements Column {
+
+    /**
+     * @return the number of values stored in this column
+     */
+
+    @Override
+    public abstract int size();
+
+    /**
+     * Gets the value stored at a row.
+     *
+     * @param row the row index of the value
+     * @return the value stored at the row
+     */
+
+    public abstract double get(int row);
+
+    /**
+     * Sets the value stored at a row.
+     *
+     * @param row the row index of the value
+     * @param value the new value
+     */
+
+    public abstract void set(int row, double value);
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.DOUBLE;
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return isValid(row) ? get(row) : null;
+    }
+
+    @Override
+    public void setObject(int row, Object value) throws ClassCastException {
+        set(row, (Double) value);
+    }
+
+    @Override
+    public void setMissing(int row) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Column can not hold missing values");
+    }
+
+    @Override
+    public double getAsDouble(int row) {
+        return get(row);
+    }
+
+    /**
+     * Tells whether the value at a row is present. Only a NullableColumn can hold missing values.
+     *
+     * @param row the row index of the value
+     * @return whether the value at the row is present
+     */
+
+    @Override
+    public boolean isValid(int row) {
+        return true;
+    }
+
+    /**
+     * Finds the first missing value in a range of rows.
+     *
+     * @param from the row index to start searching at
+     * @param to the row index after the last row to search
+     * @return the row index of the first missing value in the range, or to if every value is present
+     */
+
+    public int nextMissing(int from, int to) {
+        return to;
+    }
+
+    /**
+     * @return whether the values of this column can not be written to, in which case the DataFrame writes to a copy
+     */
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Creates a writable copy of the first values of this column. If the copy is longer than this column, the
+     * additional values are 0.
+     *
+     * @param length the number of values of the copy
+     * @return a new column that shares no storage with this column
+     */
+
+    @Override
+    public abstract DoubleColumn copy(int length);
+
+    /**
+     * Copies a range of values of this column into an array.
+     *
+     * @param from the row index of the first value to copy
+     * @param dst the array to copy the values into
+     * @param offset the position in dst at which the first value is stored
+     * @param length the number of values to copy
+     */
+
+    public void copyTo(int from, double[] dst, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = get(from + i);
+        }
+    }
+
+    /**
+     * Copies values from an array into a range of this column.
+     *
+     * @param from the row index at which the first value is stored
+     * @param src the array to copy the values from
+     * @param offset the position in src of the first value to copy
+     * @param length the number of values to copy
+     */
+
+    public void copyFrom(int from, double[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            set(from + i, src[offset + i]);
+        }
+    }
+
+    /**
+     * Creates a new column with the values at the given rows of this column.
+     *
+     * @param rows the row indices of the values to gather
+     * @param count the number of row indices to use
+     * @return a new column with count values
+     */
+
+    @Override
+    public DoubleColumn gather(int[] rows, int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = get(rows[i]);
+        }
+        return new ArrayColumn(values);
+    }
+
+    /**
+     * Reduces a non-empty range of values with an operator, starting from the first value of the range.
+     *
+     * @param from the row index of the first value
+     * @param to the row index after the last value
+     * @param operator the operator that combines two values
+     * @return the reduced value
+     */
+
+    public double reduce(int from, int to, DoubleBinaryOperator operator) {
+        double result = get(from);
+        for (int i = from + 1; i < to; i++) {
+            result = operator.applyAsDouble(result, get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Collects the rows among the first values of this column whose value lies in a closed range, in ascending order.
+     * NaN values are never in a range.
+     *
+     * @param low the smallest value in the range
+     * @param high the largest value in the range
+     * @param length the number of values to test
+     * @param rows the array to store the matching row indices in, of at least the given length
+     * @return the number of matching rows
+     */
+
+    public int rowsInRange(double low, double high, int length, int[] rows) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            double value = get(i);
+            if (low <= value && value <= high) {
+                rows[count] = i;
+                count++;
+            }
+        }
+        return count;
+    }
+}
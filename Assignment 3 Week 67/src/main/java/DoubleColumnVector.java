@@ -0,0 +1,257 @@
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * This class provides a DataVector of type Double that is a view on a single column of a DoubleDataFrame. The values are
+ * read directly from the column of the DataFrame, so creating a column vector does not copy any data and changes to the
+ * DataFrame are visible through the vector. The entry names "row_0", "row_1", etcetera are only created when they are
+ * requested.
+ *
+ * A column vector can also be a view on a selection of the rows of a column, in which case "row_0" refers to the first
+ * selected row.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class DoubleColumnVector implements DataVector<Double> {
+
+    private static final String ROW_PREFIX = "row_";
+
+    private final DoubleDataFrame frame;
+    private final int column;
+    private final int[] rows;
+
+    /**
+     * Constructs a view on a column of the DataFrame. Column vectors are obtained via DoubleDataFrame.getColumn.
+     *
+     * @param frame the dataframe that holds the values
+     * @param column the position of the column in the dataframe
+     */
+
+    DoubleColumnVector(DoubleDataFrame frame, int column) {
+        this(frame, column, null);
+    }
+
+    /**
+     * Constructs a view on the selected rows of a column of the DataFrame.
+     *
+     * @param frame the dataframe that holds the values
+     * @param column the position of the column in the dataframe
+     * @param rows the indices of the selected rows in the dataframe, or null to select every row
+     */
+
+    DoubleColumnVector(DoubleDataFrame frame, int column, int[] rows) {
+        this.frame = frame;
+        this.column = column;
+        this.rows = rows;
+    }
+
+    /**
+     * @return the name of the column
+     */
+
+    @Override
+    public String getName() {
+        return this.frame.getColumnNames().get(this.column);
+    }
+
+    /**
+     * @return a list view on the names "row_0", "row_1", etcetera of the entries of this column
+     */
+
+    @Override
+    public List<String> getEntryNames() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return ROW_PREFIX + index;
+            }
+
+            @Override
+            public int size() {
+                return length();
+            }
+        };
+    }
+
+    /**
+     * Returns the value of the given row in this column.
+     *
+     * @param entryName the name of the entry to extract, for example "row_3"
+     * @return the value stored in the row, or null if the value is missing or the name does not refer to a row of the
+     *         DataFrame
+     */
+
+    @Override
+    public Double getValue(String entryName) {
+        if (entryName == null || !entryName.startsWith(ROW_PREFIX)) {
+            return null;
+        }
+
+        // Parses the row index from the entry name without creating intermediate Strings.
+
+        long row = 0;
+        int length = entryName.length();
+        if (length == ROW_PREFIX.length() || length > ROW_PREFIX.length() + 10) {
+            return null;
+        }
+        for (int k = ROW_PREFIX.length(); k < length; k++) {
+            char c = entryName.charAt(k);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            row = row * 10 + (c - '0');
+        }
+        if (row < 0 || row >= length()) {
+            return null;
+        }
+        return valueOrNull((int) row);
+    }
+
+    /**
+     * @return a list view on the values of this column, in the order of the rows
+     */
+
+    @Override
+    public List<Double> getValues() {
+        return new AbstractList<Double>() {
+            @Override
+            public Double get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return valueOrNull(index);
+            }
+
+            @Override
+            public int size() {
+                return length();
+            }
+        };
+    }
+
+    /**
+     * @return a copy of the values of this column as an array of primitive doubles, with NaN for missing values
+     */
+
+    @Override
+    public double[] toDoubleArray() {
+        double[] values = new double[length()];
+        copyInto(values, 0);
+        return values;
+    }
+
+    /**
+     * @return the values of this column as a stream of primitive doubles, read directly from the DataFrame
+     */
+
+    @Override
+    public DoubleStream doubleStream() {
+        return IntStream.range(0, length()).mapToDouble(this::valueAt);
+    }
+
+    /**
+     * Copies the values of this column into the given array, with a single bulk copy if every row is selected.
+     *
+     * @param dst    the array to copy the values into
+     * @param offset the position in dst at which the first value is stored
+     * @throws IndexOutOfBoundsException if the values do not fit in dst
+     */
+
+    @Override
+    public void copyInto(double[] dst, int offset) throws IndexOutOfBoundsException {
+        if (this.rows == null) {
+            this.frame.copyColumn(this.column, dst, offset);
+            return;
+        }
+        if (offset < 0 || offset + this.rows.length > dst.length) {
+            throw new IndexOutOfBoundsException("Values do not fit in the destination array");
+        }
+        for (int i = 0; i < this.rows.length; i++) {
+            dst[offset + i] = this.frame.valueAt(this.rows[i], this.column);
+        }
+    }
+
+    /**
+     * Finds the missing values of this column in the validity bitmap of the DataFrame, without boxing any value.
+     *
+     * @return the positions of the missing entries of this column
+     */
+
+    @Override
+    public BitSet missingEntries() {
+        BitSet missing = new BitSet();
+        if (this.rows == null) {
+            int rowCount = this.frame.getRowCount();
+            for (int i = this.frame.nextMissing(this.column, 0); i < rowCount; i = this.frame.nextMissing(this.column, i + 1)) {
+                missing.set(i);
+            }
+            return missing;
+        }
+        for (int i = 0; i < this.rows.length; i++) {
+            if (!this.frame.isValid(this.rows[i], this.column)) {
+                missing.set(i);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @return a copy of the values of this column in a map with the row names as keys
+     */
+
+    @Override
+    public Map<String, Double> asMap() {
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < length(); i++) {
+            map.put(ROW_PREFIX + i, valueOrNull(i));
+        }
+        return map;
+    }
+
+    /**
+     * @return the number of entries of this column
+     */
+
+    private int length() {
+        return this.rows == null ? this.frame.getRowCount() : this.rows.length;
+    }
+
+    /**
+     * @param index the position of an entry of this column
+     * @return the value of the entry, read from the dataframe
+     */
+
+    private double valueAt(int index) {
+        return this.frame.valueAt(this.rows == null ? index : this.rows[index], this.column);
+    }
+
+    /**
+     * @param index the position of an entry of this column
+     * @return the value of the entry, read from the dataframe, or null if the value is missing
+     */
+
+    private Double valueOrNull(int index) {
+        return this.frame.valueOrNull(this.rows == null ? index : this.rows[index], this.column);
+    }
+
+    /**
+     * @return A String with the name and all values of the DataVector
+     */
+
+    @Override
+    public String toString() {
+        return "DoubleColumnVector{" +
+                "name=" + getName() +
+                ", vector=" + asMap() +
+                '}';
+    }
+}
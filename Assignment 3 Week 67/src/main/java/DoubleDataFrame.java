@@ -1,21 +1,50 @@
 import java.util.*;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * This class provides a DataFrame object with type Double. The DataFrame consist of a two-dimensional table of data.
  * The columns represent variables, which are associated with names of type String, and the rows represent observations of the different variables.
- * The columns and rows are stored in a nested linked HashMap, so values can be retrieved quickly.
+ * The data is stored column by column in DoubleColumn objects. By default every column is a single contiguous array of
+ * primitive doubles, but a column can also live in a buffer that is mapped from a file. The name of a column is mapped
+ * to its position once, so values can be retrieved without boxing or per row hash lookups.
+ * DataFrames derived by expand, project, select and computeColumn share unchanged columns with this DataFrame. A shared
+ * column is only copied by the DataFrame that writes to it first (copy-on-write).
+ * A parallel DataFrame evaluates the predicates of select and the functions of computeColumn on chunks of rows in
+ * parallel; the order of the rows in the result is the same as for a sequential DataFrame.
+ * An off-heap DataFrame stores its columns in direct buffers outside of the Java heap, and so do all DataFrames
+ * derived from it, which allows it to hold more data than fits in the heap without adding to the work of the garbage
+ * collector.
+ * A value can be missing (NA), which is distinct from NaN: setting a value to null marks it as missing in a validity
+ * bitmap of its column, and getValue returns null for it. The primitive accessors read a missing value as NaN. The
+ * summaries skip missing values, and dropNA and fillNA remove or replace them for whole columns at once.
+ * A DataFrame can be compacted, which stores repetitive and low-cardinality columns in a compressed encoding, see
+ * compact. Summaries and range selections work directly on the encoded values.
+ * A column can also be defined by a function of the other columns, see defineColumn, in which case its values are only
+ * computed when they are read and kept until the columns they were computed from change.
+ * The number of values, sum, sum of squares, minimum and maximum of a column are kept as running aggregates once they
+ * are first requested, see columnStatistics, and every write updates them instead of requiring a new scan.
  *
  * @author 621810cc Carlos de Cloet
  */
 
 public class DoubleDataFrame implements DataFrame<Double> {
 
+    private static final int SUMMARY_CHUNK_SIZE = 1 << 16;
+    private static final int APPEND_BLOCK_SIZE = 1 << 10;
+
     private final List<String> columnNames;
-    private final Map<Integer, Map<String, Double>> map;
+    private final Map<String, Integer> columnIndices;
+    private final DoubleColumn[] columns;
+    private final boolean[] owned;
+    private final SortedIndex[] indexes;
+    private final ColumnStatistics[] statistics;
+    private final int rowCount;
+    private boolean parallel;
+    private boolean offHeap;
 
 
     /**
@@ -29,32 +58,158 @@ public class DoubleDataFrame implements DataFrame<Double> {
 
     public DoubleDataFrame(List<String> columnNames, double[][] data) {
 
-        this.columnNames = columnNames;
-        this.map = new LinkedHashMap<>();
+        this(columnNames, transpose(columnNames.size(), data), data.length);
+    }
 
+    /**
+     * Transposes a row based matrix into one ArrayColumn per column.
+     *
+     * @param columnCount the number of columns
+     * @param data the values of all variables associated with all observations
+     * @return the columns
+     */
 
+    private static DoubleColumn[] transpose(int columnCount, double[][] data) {
+        double[][] values = new double[columnCount][data.length];
         for (int i = 0; i < data.length; i++) {
+            for (int j = 0; j < data[i].length; j++) {
+                values[j][i] = data[i][j];
+            }
+        }
+        return wrap(values);
+    }
+
+    /**
+     * Wraps arrays of values into ArrayColumns, without copying them.
+     *
+     * @param values one array of values for every column
+     * @return the columns
+     */
+
+    private static DoubleColumn[] wrap(double[][] values) {
+        DoubleColumn[] columns = new DoubleColumn[values.length];
+        for (int j = 0; j < values.length; j++) {
+            columns[j] = new ArrayColumn(values[j]);
+        }
+        return columns;
+    }
+
+    /**
+     * Constructs a DataFrame directly on top of the provided columns. The columns are not copied, so the caller
+     * should not modify them afterwards.
+     *
+     * @param columnNames the names for the columns
+     * @param columns the storage of every column, each with at least rowCount values
+     * @param rowCount the number of rows in the dataframe
+     */
+
+    private DoubleDataFrame(List<String> columnNames, DoubleColumn[] columns, int rowCount) {
+        this(columnNames, columns, new boolean[columns.length], rowCount);
+        Arrays.fill(this.owned, true);
+    }
+
+    /**
+     * Constructs a DataFrame on top of the provided columns, of which some may be shared with another DataFrame.
+     *
+     * @param columnNames the names for the columns
+     * @param columns the storage of every column, each with at least rowCount values
+     * @param owned for every column whether the storage belongs to this DataFrame only, or is shared and must be copied
+     *              before it is written to
+     * @param rowCount the number of rows in the dataframe
+     */
 
-            // Gives the row value of the matrix as key to the outer HashMap and creates a new HashMap which is given as value to the key.
+    private DoubleDataFrame(List<String> columnNames, DoubleColumn[] columns, boolean[] owned, int rowCount) {
 
-            Map<String, Double> nestedHashMap = new LinkedHashMap<>();
-            this.map.put(i, nestedHashMap);
+        this.columnNames = new ArrayList<>(columnNames);
+        this.columnIndices = new HashMap<>();
+        this.columns = columns;
+        this.owned = owned;
+        this.indexes = new SortedIndex[columns.length];
+        this.statistics = new ColumnStatistics[columns.length];
+        this.rowCount = rowCount;
 
-            // Gives the column name as key to the inner LinkedHashMap and puts the value according to the variable as value to the key.
+        for (int j = 0; j < this.columnNames.size(); j++) {
+            this.columnIndices.put(this.columnNames.get(j), j);
+        }
 
-            for (int j = 0; j < data[i].length; j++) {
-                this.map.get(i).put(this.columnNames.get(j), data[i][j]);
+        // Computed columns read from the DataFrame that holds them, so shared ones are bound to this DataFrame.
+
+        for (int j = 0; j < columns.length; j++) {
+            if (columns[j] instanceof ComputedColumn) {
+                columns[j] = ((ComputedColumn) columns[j]).bind(this);
+            }
+        }
+    }
+
+
+    /**
+     * Creates a DataFrame directly on top of the provided column arrays, without copying them. Used by the readers in
+     * FileTools, which already parse the data column by column.
+     *
+     * @param columnNames the names for the columns
+     * @param columns one array of values for every column, each of at least length rowCount
+     * @param rowCount the number of rows in the dataframe
+     * @return a DataFrame that owns the provided arrays
+     * @throws IllegalArgumentException if the number of names and columns differ, or a column is too short
+     */
+
+    static DoubleDataFrame fromColumns(List<String> columnNames, double[][] columns, int rowCount) throws IllegalArgumentException {
+        return fromColumns(columnNames, wrap(columns), rowCount);
+    }
+
+    /**
+     * Creates a DataFrame directly on top of the provided columns, without copying them. Used by the readers in
+     * FileTools, for example to create a DataFrame on top of buffers that are mapped from a file.
+     *
+     * @param columnNames the names for the columns
+     * @param columns the storage of every column, each with at least rowCount values
+     * @param rowCount the number of rows in the dataframe
+     * @return a DataFrame that owns the provided columns
+     * @throws IllegalArgumentException if the number of names and columns differ, or a column is too short
+     */
+
+    static DoubleDataFrame fromColumns(List<String> columnNames, DoubleColumn[] columns, int rowCount) throws IllegalArgumentException {
+        if (columnNames.size() != columns.length) {
+            throw new IllegalArgumentException("Number of column names and columns differ");
+        }
+        for (DoubleColumn column : columns) {
+            if (column.size() < rowCount) {
+                throw new IllegalArgumentException("Column has fewer values than the number of rows");
             }
         }
+        return new DoubleDataFrame(columnNames, columns, rowCount);
     }
 
+    /**
+     * Creates a DataFrame whose columns are stored outside of the Java heap, in which every value is 0. The values are
+     * never copied onto the heap as a whole, so the DataFrame can hold more values than fit in the heap; see
+     * DirectColumn for the JVM option that limits the amount of memory outside of the heap.
+     *
+     * @param columnNames the names for the columns
+     * @param rowCount the number of rows in the dataframe
+     * @return an off-heap DataFrame
+     * @throws IllegalArgumentException if the number of rows is negative
+     */
+
+    public static DoubleDataFrame allocateOffHeap(List<String> columnNames, int rowCount) throws IllegalArgumentException {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("Negative number of rows");
+        }
+        DoubleColumn[] columns = new DoubleColumn[columnNames.size()];
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = new DirectColumn(rowCount);
+        }
+        DoubleDataFrame frame = new DoubleDataFrame(columnNames, columns, rowCount);
+        frame.offHeap = true;
+        return frame;
+    }
 
     /**
      * @return the number of rows in the dataframe
      */
 
     public int getRowCount() {
-        return this.map.size();
+        return this.rowCount;
     }
 
     /**
@@ -75,7 +230,7 @@ public class DoubleDataFrame implements DataFrame<Double> {
     }
 
     /**
-     * Sets the value of the provided row and variable in the dataframe.
+     * Sets the value of the provided row and variable in the dataframe. A null value marks the entry as missing.
      *
      * @param rowIndex the row index of the entry
      * @param colName  the name of the column in which the entry is stored
@@ -86,14 +241,23 @@ public class DoubleDataFrame implements DataFrame<Double> {
 
 
     public void setValue(int rowIndex, String colName, Double value) throws IndexOutOfBoundsException, IllegalArgumentException {
-        if (rowIndex < 0 || rowIndex >= this.getRowCount()) {
-            throw new IndexOutOfBoundsException("Invalid index");
-        }
-        if (!this.map.get(rowIndex).containsKey(colName)) {
-            throw new IllegalArgumentException("Non existing column provided");
+        checkRow(rowIndex);
+        int colIndex = indexOf(colName);
+        DoubleColumn column = writableColumn(colIndex);
+        recordWrite(colIndex, rowIndex, value != null, value == null ? Double.NaN : value);
+        if(value != null){
+            column.set(rowIndex, value);
         }
+        else{
 
-        this.map.get(rowIndex).put(colName, value);
+            // Adds a validity bitmap to the column when its first value goes missing.
+
+            if(!(column instanceof NullableColumn)){
+                column = new NullableColumn(column);
+                this.columns[colIndex] = column;
+            }
+            ((NullableColumn) column).setMissing(rowIndex);
+        }
     }
 
     /**
@@ -101,119 +265,197 @@ public class DoubleDataFrame implements DataFrame<Double> {
      *
      * @param rowIndex the row index of the entry
      * @param colName  the name of the column in which the entry is stored
-     * @return the value of the given variable from the given observation
+     * @return the value of the given variable from the given observation, or null if the value is missing
      * @throws IndexOutOfBoundsException when an invalid index number is provided
      * @throws IllegalArgumentException when an invalid variable name is provided
      */
 
 
     public Double getValue(int rowIndex, String colName) throws IndexOutOfBoundsException, IllegalArgumentException {
-        if (rowIndex < 0 || rowIndex >= this.getRowCount()) {
-            throw new IndexOutOfBoundsException("Invalid index");
-        }
-        if (!this.map.get(rowIndex).containsKey(colName)) {
-            throw new IllegalArgumentException("Non existing column provided");
-        }
-
-        return this.map.get(rowIndex).get(colName);
+        checkRow(rowIndex);
+        return valueOrNull(rowIndex, indexOf(colName));
     }
 
     /**
-     * Returns the row as a DataVector object of type Double
+     * Tells whether the value of the provided row and variable is missing.
      *
      * @param rowIndex the row index of the entry
-     * @return the row as a DataVector object of type Double
-     * @throws IndexOutOfBoundsException if an invalid index number is provided
+     * @param colName  the name of the column in which the entry is stored
+     * @return whether the value is missing
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when an invalid variable name is provided
      */
 
-    @Override
-    public DataVector<Double> getRow(int rowIndex) throws IndexOutOfBoundsException {
-        if (rowIndex < 0 || rowIndex >= this.getRowCount()) {
-            throw new IndexOutOfBoundsException("Invalid index");
-        }
+    public boolean isNA(int rowIndex, String colName) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkRow(rowIndex);
+        return !this.columns[indexOf(colName)].isValid(rowIndex);
+    }
 
-        // Creates new DataVector object, and provided it with the values of the row of the DataFrame, sets the boolean
-        // is row as true, and sets the name of the DataVector.
+    /**
+     * Resolves the name of a column to a handle, which can be used to access the values of the column by position.
+     *
+     * @param colName the name of the column
+     * @return a handle to the column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    public ColumnHandle columnIndex(String colName) throws IllegalArgumentException {
+        return new ColumnHandle(this, colName, indexOf(colName));
+    }
+
+    /**
+     * Gets the value of the provided row and column of the dataframe, without looking up the name of the column.
+     *
+     * @param rowIndex the row index of the entry
+     * @param column   the handle of the column in which the entry is stored
+     * @return the value of the given column at the given row, or NaN if the value is missing
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when the handle belongs to another dataframe
+     */
 
-        DoubleDataVector newVector = new DoubleDataVector();
-        newVector.setIsRow(true);
-        newVector.setRow(rowIndex);
-        newVector.setName("row_" + rowIndex);
+    public double getDouble(int rowIndex, ColumnHandle column) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkRow(rowIndex);
+        return this.columns[checkHandle(column)].get(rowIndex);
+    }
 
-        // Gets the associated row as HashMap and provides it to the DataVector
+    /**
+     * Sets the value of the provided row and column in the dataframe, without looking up the name of the column.
+     *
+     * @param rowIndex the row index of the entry
+     * @param column   the handle of the column in which the entry is stored
+     * @param value    the new value of the entry
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when the handle belongs to another dataframe
+     */
 
-        Map<String, Double> orderedMap = new LinkedHashMap<>(this.map.get(rowIndex));
-        newVector.setVector(orderedMap);
-        return newVector;
+    public void setDouble(int rowIndex, ColumnHandle column, double value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkRow(rowIndex);
+        int colIndex = checkHandle(column);
+        DoubleColumn writable = writableColumn(colIndex);
+        recordWrite(colIndex, rowIndex, true, value);
+        writable.set(rowIndex, value);
     }
 
     /**
-     * Returns a column of the dataframe as a DataVector of type Double
+     * Replaces every value of a column with the values of an array, which are copied into new storage in bulk instead
+     * of value by value. The column has no missing values afterwards.
      *
      * @param colName the name of the column
-     * @return the column as a DataVector of type Double
-     * @throws IllegalArgumentException if an invalid column name is provided
+     * @param values  the new values of the column, one for every row
+     * @throws IllegalArgumentException when an invalid column name is provided, or the number of values differs from
+     *                                  the number of rows
      */
 
-    @Override
-    public DataVector<Double> getColumn(String colName) throws IllegalArgumentException {
+    public void setColumn(String colName, double[] values) throws IllegalArgumentException {
+        int colIndex = indexOf(colName);
+        if(values.length != this.rowCount){
+            throw new IllegalArgumentException("Number of values differs from the number of rows");
+        }
 
-        if (!this.map.get(0).containsKey(colName)) {
-            throw new IllegalArgumentException("Non existing column provided");
+        this.columns[colIndex] = this.offHeap ? DirectColumn.copyOf(new ArrayColumn(values), this.rowCount) : new ArrayColumn(values.clone());
+        this.owned[colIndex] = true;
+        this.indexes[colIndex] = null;
+        if(this.statistics[colIndex] != null){
+            this.statistics[colIndex].invalidate();
         }
+        invalidateDependents(colIndex, 0, this.rowCount);
+    }
 
-        // Creates new DataVector object, and provided it with the values of the column of the DataFrame. A new LinkedHashMap
-        // is created for values to be stored in. Then it loops through all rows of the column to store the row number as key,
-        // and sets the value as the value of the associated row and column from the dataframe.
+    /**
+     * Returns the row as a DataVector object of type Double. The DataVector is a view on the row, so no values are copied
+     * and later changes to the dataframe are visible through it.
+     *
+     * @param rowIndex the row index of the entry
+     * @return the row as a DataVector object of type Double
+     * @throws IndexOutOfBoundsException if an invalid index number is provided
+     */
 
-        DoubleDataVector newVector = new DoubleDataVector();
-        newVector.setColumn(colName);
-        newVector.setVector(new LinkedHashMap<>());
-        for (int i = 0; i < this.getRowCount(); i++) {
-            newVector.getVector().put("row_" + i, this.map.get(i).get(colName));
-        }
+    @Override
+    public DataVector<Double> getRow(int rowIndex) throws IndexOutOfBoundsException {
+        checkRow(rowIndex);
+        return new DoubleRowVector(this, rowIndex);
+    }
 
-        newVector.setName(colName);
+    /**
+     * Returns a column of the dataframe as a DataVector of type Double. The DataVector is a view on the column, so no
+     * values are copied and later changes to the dataframe are visible through it.
+     *
+     * @param colName the name of the column
+     * @return the column as a DataVector of type Double
+     * @throws IllegalArgumentException if an invalid column name is provided
+     */
 
-        return newVector;
+    @Override
+    public DataVector<Double> getColumn(String colName) throws IllegalArgumentException {
+        return new DoubleColumnVector(this, indexOf(colName));
     }
 
     /**
-     * Returns all the rows of the dataframe as DataVectors of type Double in a list. First a list is made, then for all keys
-     * in the outer LinkedHashMap, the method getRow is called to get the row as DataVector and add it to the list.
+     * Returns all the rows of the dataframe as DataVectors of type Double in a list. The list creates the view on a row
+     * only when that row is requested, so iterating over the rows does not copy the dataframe.
      *
      * @return a list of all rows of the dataframe as DataVector.
      */
 
     @Override
     public List<DataVector<Double>> getRows() {
-        List<DataVector<Double>> rows = new ArrayList<>();
-        for (Integer integer : this.map.keySet()) {
-            rows.add(this.getRow(integer));
-        }
+        return new AbstractList<DataVector<Double>>() {
+            @Override
+            public DataVector<Double> get(int index) {
+                return getRow(index);
+            }
 
-        return rows;
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
     }
 
     /**
-     * Returns all the columns of the dataframe as DataVectors of type Double in a list. First a list is made, then for all keys
-     * in the inner LinkedHashMap, the method getColumn is called to get the column as DataVector and add it to the list.
+     * Returns all the columns of the dataframe as DataVectors of type Double in a list. The list creates the view on a
+     * column only when that column is requested.
      *
      * @return a list of all columns of the dataframe as DataVector.
      */
 
     @Override
     public List<DataVector<Double>> getColumns() {
-        List<DataVector<Double>> columns = new ArrayList<>();
-        for (String columnName : this.map.get(0).keySet()) {
-            columns.add(this.getColumn(columnName));
-        }
+        return new AbstractList<DataVector<Double>>() {
+            @Override
+            public DataVector<Double> get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return new DoubleColumnVector(DoubleDataFrame.this, index);
+            }
 
-        return columns;
+            @Override
+            public int size() {
+                return columns.length;
+            }
+        };
+    }
+
+    /**
+     * Applies an action to every row of the dataframe, in order, through a single cursor that moves from row to row.
+     * Unlike iterating over getRows, the scan creates no object per row; the action reads the values of the current
+     * row with column handles from columnIndex. The cursor must not be kept after the action returns.
+     *
+     * @param action the action to apply to the cursor on every row
+     */
+
+    public void forEachRow(Consumer<RowCursor> action) {
+        RowCursor cursor = new RowCursor(this);
+        for(int i = 0; i < this.rowCount; i++){
+            cursor.moveTo(i);
+            action.accept(cursor);
+        }
     }
 
     /**
-     * Expands the DataFrame by constructing a new DataFrame with additional columns, which value are 0.
+     * Expands the DataFrame by constructing a new DataFrame with additional columns, which value are 0. Without
+     * additional rows the existing columns are shared with this DataFrame instead of copied.
      *
      * @param additionalRows the number of rows to add to the new data frame
      * @param newCols        the names of the column to add to the new data frame.
@@ -230,49 +472,141 @@ public class DoubleDataFrame implements DataFrame<Double> {
         }
 
         for(String column : newCols){
-            if (this.columnNames.contains(column)){
+            if (this.columnIndices.containsKey(column)){
                 throw new IllegalArgumentException("Dataframe already contains this column name");
             }
         }
 
-        // Adds all inner HashMaps to a list and puts the additional columns as keys to the inner Hashmap with value 0.
-
-        List<Map<String,Double>> expandedInnerMap = new ArrayList<>(this.map.values());
-        for(String newCol : newCols){
-            expandedInnerMap.forEach( innerMap -> innerMap.put(newCol, 0.0));
-        }
-
         // Adds the new column names to the list of all column names.
 
         ArrayList<String> allColumns = new ArrayList<>();
         allColumns.addAll(this.columnNames);
         allColumns.addAll(newCols);
 
-        // makes a matrix of double values and adds the values of the HashMap to the matrix, and sets the value 0 for all additional rows.
+        // Shares every existing column if the number of rows stays the same, otherwise copies it into a longer column.
+        // The additional rows and the new columns keep the value 0.
+
+        int newRowCount = this.rowCount + additionalRows;
+        DoubleColumn[] values = new DoubleColumn[allColumns.size()];
+        boolean[] valuesOwned = new boolean[allColumns.size()];
+        for(int j = 0; j < this.columns.length; j++){
+            if(additionalRows == 0){
+                values[j] = shareColumn(j);
+            }
+            else{
+                values[j] = copyStorage(this.columns[j], newRowCount);
+                valuesOwned[j] = true;
+            }
+        }
+        for(int j = this.columns.length; j < values.length; j++){
+            values[j] = newColumn(newRowCount);
+            valuesOwned[j] = true;
+        }
+
+        // constructs a new DataFrame with the new columns and column names
 
-        double[][] values = new double[this.getRowCount()+additionalRows][allColumns.size()];
-        for(int i = 0; i < this.getRowCount(); i++){
+        DoubleDataFrame expandedFrame = new DoubleDataFrame(allColumns, values, valuesOwned, newRowCount);
+        expandedFrame.parallel = this.parallel;
+        expandedFrame.offHeap = this.offHeap;
+        return expandedFrame;
+    }
+
+    /**
+     * Creates a new DataFrame with the given rows appended to the rows of this DataFrame. Every column is copied once
+     * into storage of the new length, and the appended values are transposed in blocks of rows and copied behind it in
+     * bulk, so no value is validated or stored on its own.
+     *
+     * @param rows the rows to append, each with one value for every column, in the order of the columns
+     * @return a DataFrame with the rows of this DataFrame followed by the appended rows
+     * @throws IllegalArgumentException if a row does not have one value for every column
+     */
 
-            Map<String,Double> pr = expandedInnerMap.get(i);
+    public DoubleDataFrame appendRows(double[][] rows) throws IllegalArgumentException {
 
-            for(int j = 0; j < allColumns.size(); j++){
-                values[i][j] = pr.get(allColumns.get(j));
+        for(double[] row : rows){
+            if(row.length != this.columns.length){
+                throw new IllegalArgumentException("Row does not have one value for every column");
             }
         }
-        for(int k = this.getRowCount(); k < additionalRows+this.getRowCount(); k++){
 
-            for(int l = 0; l < allColumns.size(); l++){
-                values[k][l] = 0;
+        int newRowCount = this.rowCount + rows.length;
+        DoubleColumn[] values = new DoubleColumn[this.columns.length];
+        boolean[] valuesOwned = new boolean[values.length];
+        for(int j = 0; j < values.length; j++){
+            values[j] = copyStorage(this.columns[j], newRowCount);
+            valuesOwned[j] = true;
+        }
+
+        // Transposes a block of rows at a time, which stays in the cache while it is read for every column.
+
+        double[] block = new double[Math.min(APPEND_BLOCK_SIZE, rows.length)];
+        for(int from = 0; from < rows.length; from += APPEND_BLOCK_SIZE){
+            int length = Math.min(APPEND_BLOCK_SIZE, rows.length - from);
+            for(int j = 0; j < values.length; j++){
+                for(int i = 0; i < length; i++){
+                    block[i] = rows[from + i][j];
+                }
+                values[j].copyFrom(this.rowCount + from, block, 0, length);
             }
         }
-        // constructs a new DataFrame with the new matrix and column names
 
-        DoubleDataFrame expandedFrame = new DoubleDataFrame(allColumns, values);
-        return expandedFrame;
+        DoubleDataFrame appended = new DoubleDataFrame(this.columnNames, values, valuesOwned, newRowCount);
+        appended.parallel = this.parallel;
+        appended.offHeap = this.offHeap;
+        return appended;
+    }
+
+    /**
+     * Concatenates the columns of another DataFrame to the columns of this DataFrame. The columns of another
+     * DoubleDataFrame are shared with the result instead of copied; the columns of any other DataFrame are copied
+     * column by column in bulk, keeping their missing values.
+     *
+     * @param other the data frame to concatenate to this data frame
+     * @return a newly created data frame containing both the data from this and the other data frame
+     * @throws IllegalArgumentException if the number of rows do no match or column names are duplicated
+     */
+
+    @Override
+    public DoubleDataFrame concat(DataFrame<Double> other) throws IllegalArgumentException {
+
+        if(getRowCount() != other.getRowCount()){
+            throw new IllegalArgumentException("Can only concatenate dataframes with equal numbers of rows");
+        }
+        for(String column : other.getColumnNames()){
+            if(this.columnIndices.containsKey(column)){
+                throw new IllegalArgumentException("Dataframe already contains this column name");
+            }
+        }
+
+        List<String> names = other.getColumnNames();
+        DoubleColumn[] added = new DoubleColumn[names.size()];
+        if(other instanceof DoubleDataFrame){
+            DoubleDataFrame right = (DoubleDataFrame) other;
+            for(int j = 0; j < added.length; j++){
+                added[j] = right.shareColumn(j);
+            }
+            DoubleDataFrame result = derive(allColumnIndices(), null, this.rowCount, names, added);
+            for(int j = 0; j < added.length; j++){
+                result.owned[this.columns.length + j] = false;
+                result.statistics[this.columns.length + j] = right.statistics[j] == null ? null : right.statistics[j].snapshot();
+            }
+            return result;
+        }
+
+        // Copies every column of the other DataFrame as a whole, and marks its missing values afterwards.
+
+        for(int j = 0; j < added.length; j++){
+            DataVector<Double> column = other.getColumn(names.get(j));
+            double[] values = column.toDoubleArray();
+            added[j] = this.offHeap ? DirectColumn.copyOf(new ArrayColumn(values), this.rowCount) : new ArrayColumn(values);
+            added[j] = withMissing(added[j], column.missingEntries());
+        }
+        return derive(allColumnIndices(), null, this.rowCount, names, added);
     }
 
     /**
-     * Gives a dataframe with only the given columns that should be retained.
+     * Gives a dataframe with only the given columns that should be retained. The retained columns are shared with this
+     * DataFrame instead of copied.
      *
      * @param retainColumns the names of column that should be retained
      * @return the DataFrame with the retained columns.
@@ -283,34 +617,28 @@ public class DoubleDataFrame implements DataFrame<Double> {
     public DataFrame<Double> project(Collection<String> retainColumns) throws IllegalArgumentException {
 
         for(String column : retainColumns){
-            if(! this.columnNames.contains(column)){
+            if(! this.columnIndices.containsKey(column)){
                 throw new IllegalArgumentException("Dataframe does not contain this column: " + column);
             }
         }
 
-        // Makes a filter and collect all retained Strings in a list.
-
-        Predicate<String> isContainedInList = retainColumns::contains;
-        List<String> retainedColumns = this.map.get(0).keySet().stream().filter(isContainedInList).collect(Collectors.toList());
-
-        // Makes a matrix of double values and adds the values of all retained columns from the HashMap to the matrix.
-
-        double[][] values = new double[this.getRowCount()][retainedColumns.size()];
+        // Collects the positions of the retained columns in the order of this dataframe and shares their arrays.
 
-        for(int i = 0; i < this.getRowCount(); i++){
-            for(int j = 0; j < retainColumns.size(); j++){
-                values[i][j] = this.map.get(i).get(retainedColumns.get(j));
+        int[] retained = new int[this.columns.length];
+        int count = 0;
+        for(int j = 0; j < this.columns.length; j++){
+            if(retainColumns.contains(this.columnNames.get(j))){
+                retained[count] = j;
+                count++;
             }
         }
 
-        // constructs a new DataFrame with the matrix of retained columns.
-
-        DoubleDataFrame shrunkData = new DoubleDataFrame(retainedColumns, values);
-        return shrunkData;
+        return derive(Arrays.copyOf(retained, count), null, this.rowCount, Collections.emptyList(), new double[0][]);
     }
 
     /**
-     * Creates a new DataFrame with rows that should be retained according to the provided filter.
+     * Creates a new DataFrame with rows that should be retained according to the provided filter. If every row is
+     * retained, the columns are shared with this DataFrame instead of copied.
      *
      * @param rowFilter a predicate that can indicate whether a row should be
      *                  maintained
@@ -320,109 +648,1127 @@ public class DoubleDataFrame implements DataFrame<Double> {
     @Override
     public DataFrame<Double> select(Predicate<DataVector<Double>> rowFilter) {
 
-        // Creates a list consisting of DataVectors of type Double and makes a DataVector for all rows of the dataframe
-        // which are added to the list.
-
-        ArrayList<DoubleDataVector> vectors = new ArrayList<>();
-        for(Map<String,Double> innerMap : this.map.values()){
-            DoubleDataVector vector = new DoubleDataVector();
-            vector.setVector(innerMap);
-            vectors.add(vector);
+        // Collects the indices of all rows that are accepted by the filter. In parallel, every chunk of rows marks its
+        // accepted rows first, after which the indices are collected in order.
+
+        int[] selected = new int[this.rowCount];
+        int count = 0;
+        if(this.parallel){
+            boolean[] accepted = new boolean[this.rowCount];
+            ParallelTools.forEachChunk(this.rowCount, (from, to) -> {
+                for(int i = from; i < to; i++){
+                    accepted[i] = rowFilter.test(new DoubleRowVector(this, i));
+                }
+            });
+            for(int i = 0; i < this.rowCount; i++){
+                if(accepted[i]){
+                    selected[count] = i;
+                    count++;
+                }
+            }
+        }
+        else{
+            for(int i = 0; i < this.rowCount; i++){
+                if(rowFilter.test(new DoubleRowVector(this, i))){
+                    selected[count] = i;
+                    count++;
+                }
+            }
         }
 
-        // Filters all the DataVectors that should be retained and add them to a list !!! Method contains an error
-        // according to CodeGrade, but works as intended in this IntelliJ enviroment.
-
-        List<DoubleDataVector> list = vectors.stream().filter(rowFilter).collect(Collectors.toList());
+        // Shares the columns if every row is retained, otherwise gathers the values of the retained rows.
 
-        // Makes a matrix of double values and adds the values of all retained DataVectors to the matrix.
+        int[] rows = count == this.rowCount ? null : selected;
+        return derive(allColumnIndices(), rows, count, Collections.emptyList(), new double[0][]);
+    }
 
-        double[][] values = new double [list.size()][this.columnNames.size()];
-        for(int i = 0; i < list.size(); i++){
-            for(int j = 0; j < this.columnNames.size(); j++){
-                values[i][j] = list.get(i).getValue(this.columnNames.get(j));
-            }
-        }
+    /**
+     * Builds a sorted index on a column, which is used by selectRange and selectEquals to find the matching rows
+     * without scanning the column. The index is dropped as soon as a value of the column is set, and is shared with
+     * DataFrames derived from this DataFrame that retain every row.
+     *
+     * @param colName the name of the column to index
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
 
-        // constructs a new DataFrame with the matrix of retained rows.
+    public void createIndex(String colName) throws IllegalArgumentException {
+        int colIndex = indexOf(colName);
+        this.indexes[colIndex] = new SortedIndex(this.columns[colIndex], this.rowCount);
+    }
 
-        DoubleDataFrame selectDataFrame = new DoubleDataFrame(this.columnNames, values);
-        return selectDataFrame;
+    /**
+     * @param colName the name of a column
+     * @return whether the column currently has an index
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
 
+    public boolean hasIndex(String colName) throws IllegalArgumentException {
+        return this.indexes[indexOf(colName)] != null;
     }
 
     /**
-     * Applies function to columns and adds them to the DataFrame by expanding the DataFrame and then calculating and adding
-     * the values to the new column.
+     * Creates a new DataFrame with the rows whose value in a column lies in a closed range, in their original order. If
+     * the column has an index the matching rows are found by binary search, otherwise the column is scanned. NaN values
+     * are never in a range.
      *
-     * @param columnName the name of the new column
-     * @param function   the function to apply to each row
-     * @return a new DataFrame with the computed column added to it
+     * @param colName the name of the column
+     * @param low     the smallest value in the range
+     * @param high    the largest value in the range
+     * @return a new DataFrame with the matching rows
+     * @throws IllegalArgumentException when an invalid column name is provided
      */
 
-    @Override
-    public DataFrame<Double> computeColumn(String columnName, Function<DataVector<Double>, Double> function) {
+    public DoubleDataFrame selectRange(String colName, double low, double high) throws IllegalArgumentException {
+        int colIndex = indexOf(colName);
 
+        // Finds the matching rows in the index, or by a tight scan over the column if there is no index. An encoded
+        // column is scanned in its encoded form.
 
-        DataFrame<Double> compute = this.expand(0,columnName);
-        int i = 0;
-        for( DataVector<Double> vector : compute.getRows()){
-            Double value = function.apply(vector);
-            compute.setValue(i, columnName, value);
-            i++;
+        int[] rows;
+        int count;
+        if (this.indexes[colIndex] != null) {
+            rows = this.indexes[colIndex].rowsInRange(low, high);
+            count = rows.length;
+        }
+        else {
+            rows = new int[this.rowCount];
+            count = this.columns[colIndex].rowsInRange(low, high, this.rowCount, rows);
         }
 
-        return compute;
+        return derive(allColumnIndices(), count == this.rowCount ? null : rows, count, Collections.emptyList(), new DoubleColumn[0]);
     }
 
     /**
-     * Creates a row DataVector which summarizes the values of all observations according to the given BinaryOperator as argument.
+     * Creates a new DataFrame with the rows whose value in a column equals the given value, in their original order.
      *
-     * @param name            the name of the resulting data vector
-     * @param summaryFunction the binary operator that should be used to reduce the
-     *                        values in each column
-     * @return a DataVector which summarizes the values of all observations
+     * @param colName the name of the column
+     * @param value   the value to match
+     * @return a new DataFrame with the matching rows
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    public DoubleDataFrame selectEquals(String colName, double value) throws IllegalArgumentException {
+        return selectRange(colName, value, value);
+    }
+
+    /**
+     * Creates a new DataFrame with the rows sorted in ascending order by the given columns, most significant first.
+     * NaN values come after all other values and negative zero comes before positive zero. Rows that are equal in all
+     * given columns keep their original order.
+     *
+     * @param columns the names of the columns to sort by
+     * @return a new sorted DataFrame
+     * @throws IllegalArgumentException when an invalid column name is provided
      */
 
     @Override
-    public DataVector<Double> summarize(String name, BinaryOperator<Double> summaryFunction) {
+    public DoubleDataFrame sortBy(String... columns) throws IllegalArgumentException {
+        return sort(indicesOf(columns), new boolean[columns.length]);
+    }
 
-        // Makes a new list of Doubles and for each column, applies the summaryFunction to all values of the column and adds the value to the list.
+    /**
+     * Creates a new DataFrame with the rows sorted by a single column. NaN values come after all other values in both
+     * directions. Rows with equal values keep their original order.
+     *
+     * @param column     the name of the column to sort by
+     * @param descending whether the rows should be sorted in descending order
+     * @return a new sorted DataFrame
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
 
-        List<Double> values = new ArrayList<>();
-        this.getColumns().forEach( column -> values.add(column.getValues().stream().reduce(column.getValues().get(0), summaryFunction)));
+    @Override
+    public DoubleDataFrame sortBy(String column, boolean descending) throws IllegalArgumentException {
+        return sort(new int[] { indexOf(column) }, new boolean[] { descending });
+    }
 
-        // Creates a new DataVector and gives it the name that is given as argument
+    /**
+     * Sorts the rows by computing a permutation with a stable radix sort on primitive keys, one column at a time
+     * starting with the least significant column, after which the columns are gathered once in the sorted order.
+     *
+     * @param colIndices the positions of the columns to sort by, most significant first
+     * @param descending for every column whether it is sorted in descending order
+     * @return a new sorted DataFrame
+     */
 
-        DoubleDataVector summary = new DoubleDataVector();
-        summary.setIsRow(true);
-        summary.setRow(values.size());
-        summary.setName(name);
+    private DoubleDataFrame sort(int[] colIndices, boolean[] descending) {
 
-        // Creates a new HashMap and gives all columns as key to the HashMap with the aggregated value from the list as value to the key,
-        // and gives the HashMap to the DataVector.
+        int[] rows = new int[this.rowCount];
+        for(int i = 0; i < this.rowCount; i++){
+            rows[i] = i;
+        }
 
-        Map<String, Double> test = new LinkedHashMap<>();
-        int i = 0;
-        for(String column : this.columnNames){
-            test.put(column, values.get(i));
-            i++;
+        // Sorts the permutation by every column, from the least to the most significant. The keys of a column are read
+        // in the current order of the permutation; a descending key is inverted, except for NaN which stays last.
+
+        long[] keys = new long[this.rowCount];
+        for(int k = colIndices.length - 1; k >= 0; k--){
+            DoubleColumn column = this.columns[colIndices[k]];
+            boolean inverted = descending[k];
+            ParallelTools.RangeAction encode = (from, to) -> {
+                for(int i = from; i < to; i++){
+                    double value = column.get(rows[i]);
+                    long key = RadixSort.sortableKey(value);
+                    keys[i] = inverted && !Double.isNaN(value) ? ~key : key;
+                }
+            };
+            if(this.parallel){
+                ParallelTools.forEachChunk(this.rowCount, encode);
+            }
+            else{
+                encode.apply(0, this.rowCount);
+            }
+            RadixSort.sort(keys, rows);
         }
 
-        summary.setVector(test);
-        return summary;
+        // Shares the columns if the rows were already sorted, otherwise gathers them in the sorted order.
+
+        boolean sorted = true;
+        for(int i = 0; i < this.rowCount && sorted; i++){
+            sorted = rows[i] == i;
+        }
+        return derive(allColumnIndices(), sorted ? null : rows, this.rowCount, Collections.emptyList(), new DoubleColumn[0]);
     }
 
     /**
-     *  @return a Statistics object with itself given to it as argument
+     * Groups the rows of this DataFrame by the values of a column in a single pass, after which the groups can be
+     * aggregated with sum, mean, min, max, count or a custom operator.
+     *
+     * @param keyColumn the name of the column whose values are the keys of the groups
+     * @return the groups of this DataFrame
+     * @throws IllegalArgumentException when an invalid column name is provided
      */
 
-    @Override
-    public DataFrameStatistics statistics()
-    {
-        return new Statistic(this);
+    public GroupedDataFrame groupBy(String keyColumn) throws IllegalArgumentException {
+        return new GroupedDataFrame(this, indexOf(keyColumn));
     }
-}
 
+    /**
+     * Joins this DataFrame with another DataFrame on a key column of each. A hash table is built on the keys of the
+     * smaller DataFrame and probed with the keys of the larger DataFrame in parallel chunks; see HashJoin for the order
+     * and columns of the result. NaN and missing keys never match.
+     *
+     * @param other    the right DataFrame of the join
+     * @param leftKey  the name of the key column of this DataFrame
+     * @param rightKey the name of the key column of the other DataFrame
+     * @param type     the kind of join
+     * @return a new DataFrame with the joined rows
+     * @throws IllegalArgumentException when an invalid column name is provided, or the result has more rows than a
+     *                                  DataFrame can hold
+     */
+
+    public DoubleDataFrame join(DataFrame<Double> other, String leftKey, String rightKey, JoinType type) throws IllegalArgumentException {
 
+        // Reads another kind of DataFrame into a DoubleDataFrame first, so both sides can be read by position. Every
+        // column is copied as a whole, and its missing values are marked afterwards.
 
+        DoubleDataFrame right;
+        if(other instanceof DoubleDataFrame){
+            right = (DoubleDataFrame) other;
+        }
+        else{
+            DoubleColumn[] columns = new DoubleColumn[other.getColumnCount()];
+            for(int j = 0; j < columns.length; j++){
+                DataVector<Double> column = other.getColumn(other.getColumnNames().get(j));
+                columns[j] = withMissing(new ArrayColumn(column.toDoubleArray()), column.missingEntries());
+            }
+            right = fromColumns(other.getColumnNames(), columns, other.getRowCount());
+        }
+
+        return HashJoin.join(this, right, indexOf(leftKey), right.indexOf(rightKey), type);
+    }
+
+    /**
+     * Creates a filtered view on the rows that are accepted by the provided filter. Unlike select, no values are copied:
+     * the view holds a bitmap of the accepted rows and reads their values from this DataFrame. If this DataFrame is
+     * parallel, the filter is evaluated on chunks of rows in parallel.
+     *
+     * @param rowFilter a predicate that can indicate whether a row should be maintained
+     * @return a filtered view on this DataFrame
+     */
+
+    public FilteredDataFrame filter(Predicate<DataVector<Double>> rowFilter) {
+        return new FilteredDataFrame(this, FilteredDataFrame.evaluate(this, rowFilter, null));
+    }
+
+    /**
+     * Creates a new DataFrame without the rows in which a value is missing in any of the given columns, or in any column
+     * if no columns are given. The missing rows are found in the validity bitmaps, so columns without missing values are
+     * not read at all. If no row is dropped, the columns are shared with this DataFrame.
+     *
+     * @param columns the names of the columns to check for missing values
+     * @return a new DataFrame with the rows that have a value in all given columns
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    public DoubleDataFrame dropNA(String... columns) throws IllegalArgumentException {
+        int[] colIndices = columns.length == 0 ? allColumnIndices() : indicesOf(columns);
+
+        // Marks every row with a missing value in one of the columns, then collects the other rows in order.
+
+        BitSet missing = new BitSet(this.rowCount);
+        for(int j : colIndices){
+            DoubleColumn column = this.columns[j];
+            for(int i = column.nextMissing(0, this.rowCount); i < this.rowCount; i = column.nextMissing(i + 1, this.rowCount)){
+                missing.set(i);
+            }
+        }
+        if(missing.isEmpty()){
+            return derive(allColumnIndices(), null, this.rowCount, Collections.emptyList(), new DoubleColumn[0]);
+        }
+
+        int[] rows = new int[this.rowCount - missing.cardinality()];
+        int count = 0;
+        for(int i = missing.nextClearBit(0); i < this.rowCount; i = missing.nextClearBit(i + 1)){
+            rows[count] = i;
+            count++;
+        }
+        return derive(allColumnIndices(), rows, count, Collections.emptyList(), new DoubleColumn[0]);
+    }
+
+    /**
+     * Creates a new DataFrame in which every missing value is replaced by the given value. Only the columns with missing
+     * values are copied; the other columns are shared with this DataFrame.
+     *
+     * @param value the value to store at the missing entries
+     * @return a new DataFrame without missing values
+     */
+
+    public DoubleDataFrame fillNA(double value) {
+        return fill(allColumnIndices(), value);
+    }
+
+    /**
+     * Creates a new DataFrame in which every missing value of a column is replaced by the given value. The column is only
+     * copied if it has missing values; the other columns are shared with this DataFrame.
+     *
+     * @param colName the name of the column to fill
+     * @param value   the value to store at the missing entries
+     * @return a new DataFrame without missing values in the column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    public DoubleDataFrame fillNA(String colName, double value) throws IllegalArgumentException {
+        return fill(new int[] { indexOf(colName) }, value);
+    }
+
+    /**
+     * Replaces the missing values of columns in a copy of their values, which no longer needs a validity bitmap.
+     *
+     * @param colIndices the positions of the columns to fill
+     * @param value      the value to store at the missing entries
+     * @return a new DataFrame that shares every other column with this DataFrame
+     */
+
+    private DoubleDataFrame fill(int[] colIndices, double value) {
+        DoubleDataFrame filled = derive(allColumnIndices(), null, this.rowCount, Collections.emptyList(), new DoubleColumn[0]);
+        for(int j : colIndices){
+            DoubleColumn column = this.columns[j];
+            DoubleColumn values;
+            if(column instanceof NullableColumn){
+                values = copyStorage(((NullableColumn) column).getValues(), this.rowCount);
+            }
+            else if(column instanceof ComputedColumn && column.nextMissing(0, this.rowCount) < this.rowCount){
+                // Materializes the computed values, which gives a NullableColumn with its own copy of the values.
+                values = ((NullableColumn) copyStorage(column, this.rowCount)).getValues();
+            }
+            else{
+                continue;
+            }
+            for(int i = column.nextMissing(0, this.rowCount); i < this.rowCount; i = column.nextMissing(i + 1, this.rowCount)){
+                values.set(i, value);
+            }
+            filled.columns[j] = values;
+            filled.owned[j] = true;
+            filled.indexes[j] = null;
+            filled.statistics[j] = null;
+            filled.invalidateDependents(j, 0, this.rowCount);
+        }
+        return filled;
+    }
+
+    /**
+     * Applies function to every row and adds the results as a new column to a new DataFrame. The existing columns are
+     * shared with this DataFrame, so only the new column is allocated. A null result marks the row as missing.
+     *
+     * @param columnName the name of the new column
+     * @param function   the function to apply to each row
+     * @return a new DataFrame with the computed column added to it
+     */
+
+    @Override
+    public DataFrame<Double> computeColumn(String columnName, Function<DataVector<Double>, Double> function) {
+
+        if (this.columnIndices.containsKey(columnName)) {
+            throw new IllegalArgumentException("Dataframe already contains this column name");
+        }
+
+        // Computes the new column first, then shares the existing columns and appends the new one. Every range
+        // collects its missing rows on its own and merges them into the missing rows of the column once.
+
+        DoubleColumn computed = newColumn(this.rowCount);
+        BitSet missing = new BitSet();
+        ParallelTools.RangeAction compute = (from, to) -> {
+            BitSet rangeMissing = new BitSet();
+            for(int i = from; i < to; i++){
+                Double value = function.apply(new DoubleRowVector(this, i));
+                if(value == null){
+                    computed.set(i, Double.NaN);
+                    rangeMissing.set(i);
+                }
+                else{
+                    computed.set(i, value);
+                }
+            }
+            if(!rangeMissing.isEmpty()){
+                synchronized(missing){
+                    missing.or(rangeMissing);
+                }
+            }
+        };
+        if(this.parallel){
+            ParallelTools.forEachChunk(this.rowCount, compute);
+        }
+        else{
+            compute.apply(0, this.rowCount);
+        }
+
+        return derive(allColumnIndices(), null, this.rowCount, Collections.singletonList(columnName),
+                new DoubleColumn[] { withMissing(computed, missing) });
+    }
+
+    /**
+     * Defines a virtual column whose values are computed by a function of the other values in the same row, like
+     * computeColumn, but only when they are read. The rows are computed in chunks on the first access to the chunk and
+     * then kept, until a column that the function read from is written to. The function sees the columns of this
+     * DataFrame. As with computeColumn, a null result is stored as a missing value. The first write to the column
+     * itself computes every row into a normal column.
+     *
+     * @param columnName the name of the new column
+     * @param function   the function to apply to each row
+     * @return a new DataFrame with the virtual column added to it, which shares every other column with this DataFrame
+     * @throws IllegalArgumentException when the DataFrame already contains a column with the name
+     */
+
+    public DoubleDataFrame defineColumn(String columnName, Function<DataVector<Double>, Double> function) throws IllegalArgumentException {
+
+        if (this.columnIndices.containsKey(columnName)) {
+            throw new IllegalArgumentException("Dataframe already contains this column name");
+        }
+
+        ComputedColumn defined = new ComputedColumn(function, this.columnNames, this.rowCount);
+        return derive(allColumnIndices(), null, this.rowCount, Collections.singletonList(columnName), new DoubleColumn[] { defined });
+    }
+
+    /**
+     * Creates a row DataVector which summarizes the values of all observations according to the given BinaryOperator as argument.
+     * The reduction starts with the first value of each column and skips missing values; if a column has no values the
+     * summary is null.
+     *
+     * @param name            the name of the resulting data vector
+     * @param summaryFunction the binary operator that should be used to reduce the
+     *                        values in each column
+     * @return a DataVector which summarizes the values of all observations
+     */
+
+    @Override
+    public DataVector<Double> summarize(String name, BinaryOperator<Double> summaryFunction) {
+
+        // Creates a new DataVector and gives it the name that is given as argument
+
+        DoubleDataVector summary = new DoubleDataVector();
+        summary.setIsRow(true);
+        summary.setRow(this.columns.length);
+        summary.setName(name);
+
+        // Reduces every column directly and puts the aggregated value in a HashMap with the column as key,
+        // and gives the HashMap to the DataVector.
+
+        Map<String, Double> test = new LinkedHashMap<>();
+        for(int j = 0; j < this.columns.length; j++){
+            DoubleColumn column = this.columns[j];
+            Double result = null;
+            for(int i = 0; i < this.rowCount; i++){
+                if(column.isValid(i)){
+                    result = result == null ? column.get(i) : summaryFunction.apply(result, column.get(i));
+                }
+            }
+            test.put(this.columnNames.get(j), result);
+        }
+
+        summary.setVector(test);
+        return summary;
+    }
+
+    /**
+     * Creates a row DataVector which summarizes the values of all observations according to the given primitive operator.
+     * Every column is split into chunks of rows, which are reduced in a tight loop in parallel for all columns at once.
+     * The partial results of the chunks are then combined in the order of the rows. As with Stream.reduce, the
+     * operator should be associative. Missing values are skipped; if a column has no values the summary is null.
+     * The operators ColumnStatistics.SUM, MIN and MAX are answered from the running aggregates of the columns, which
+     * only scans columns whose aggregates were never requested or are stale.
+     *
+     * @param name            the name of the resulting data vector
+     * @param summaryFunction the associative operator that should be used to reduce the values in each column
+     * @return a DataVector which summarizes the values of all observations
+     */
+
+    public DataVector<Double> summarizeDouble(String name, DoubleBinaryOperator summaryFunction) {
+
+        if(summaryFunction == ColumnStatistics.SUM || summaryFunction == ColumnStatistics.MIN || summaryFunction == ColumnStatistics.MAX){
+            Map<String, Double> values = new LinkedHashMap<>();
+            for(int j = 0; j < this.columns.length; j++){
+                values.put(this.columnNames.get(j), statisticsOf(j).summarize(summaryFunction));
+            }
+            return summaryVector(name, values);
+        }
+
+        // Reduces every chunk of every column into a partial result. The chunks of all columns are processed as one
+        // range of tasks, so wide and long dataframes both keep all threads busy. A chunk in which every value is
+        // missing has no partial result.
+
+        int chunks = ParallelTools.chunkCount(this.rowCount, SUMMARY_CHUNK_SIZE);
+        double[][] partials = new double[this.columns.length][chunks];
+        boolean[][] present = new boolean[this.columns.length][chunks];
+        if(this.rowCount > 0){
+            ParallelTools.forEachChunk(this.columns.length * chunks, 1, (from, to) -> {
+                for(int task = from; task < to; task++){
+                    int j = task / chunks;
+                    int chunk = task % chunks;
+                    int start = chunk * SUMMARY_CHUNK_SIZE;
+                    int end = Math.min(this.rowCount, start + SUMMARY_CHUNK_SIZE);
+                    while(start < end && !this.columns[j].isValid(start)){
+                        start++;
+                    }
+                    if(start < end){
+                        partials[j][chunk] = this.columns[j].reduce(start, end, summaryFunction);
+                        present[j][chunk] = true;
+                    }
+                }
+            });
+        }
+
+        // Combines the partial results of every column and puts them in a HashMap with the column as key.
+
+        Map<String, Double> values = new LinkedHashMap<>();
+        for(int j = 0; j < this.columns.length; j++){
+            Double result = null;
+            for(int chunk = 0; chunk < chunks; chunk++){
+                if(present[j][chunk]){
+                    result = result == null ? partials[j][chunk] : summaryFunction.applyAsDouble(result, partials[j][chunk]);
+                }
+            }
+            values.put(this.columnNames.get(j), result);
+        }
+
+        return summaryVector(name, values);
+    }
+
+    /**
+     * Wraps the summaries of all columns into a row DataVector.
+     *
+     * @param name   the name of the resulting data vector
+     * @param values the summary of every column, in order
+     * @return a DataVector with the summaries
+     */
+
+    private DataVector<Double> summaryVector(String name, Map<String, Double> values) {
+        DoubleDataVector summary = new DoubleDataVector();
+        summary.setIsRow(true);
+        summary.setRow(this.columns.length);
+        summary.setName(name);
+        summary.setVector(values);
+        return summary;
+    }
+
+    /**
+     * Gives a parallel version of this dataframe, which shares all columns with this dataframe. The select and
+     * computeColumn operations of a parallel dataframe evaluate the predicate or function on chunks of rows on the
+     * common ForkJoin pool, so the predicate or function should be safe to call from multiple threads. Dataframes
+     * derived from a parallel dataframe are parallel as well.
+     *
+     * @return a parallel dataframe with the same columns and rows
+     */
+
+    public DoubleDataFrame parallel() {
+        DoubleDataFrame frame = derive(allColumnIndices(), null, this.rowCount, Collections.emptyList(), new double[0][]);
+        frame.parallel = true;
+        return frame;
+    }
+
+    /**
+     * Gives a sequential version of this dataframe, which shares all columns with this dataframe.
+     *
+     * @return a sequential dataframe with the same columns and rows
+     */
+
+    public DoubleDataFrame sequential() {
+        DoubleDataFrame frame = derive(allColumnIndices(), null, this.rowCount, Collections.emptyList(), new double[0][]);
+        frame.parallel = false;
+        return frame;
+    }
+
+    /**
+     * @return whether select and computeColumn are evaluated in parallel
+     */
+
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
+    /**
+     * Gives an off-heap version of this dataframe. Columns that are stored on the heap are copied outside of the heap,
+     * columns that are already stored in buffers, such as columns mapped from a file, are shared. Copies, selections,
+     * computed columns and expansions of an off-heap dataframe are stored outside of the heap as well, as is the copy
+     * that is made when a shared or read-only column is first written to.
+     *
+     * @return an off-heap dataframe with the same columns and rows
+     */
+
+    public DoubleDataFrame offHeap() {
+        DoubleColumn[] values = new DoubleColumn[this.columns.length];
+        boolean[] valuesOwned = new boolean[values.length];
+        for(int j = 0; j < values.length; j++){
+            if(storageOf(this.columns[j]) instanceof BufferColumn){
+                values[j] = shareColumn(j);
+            }
+            else{
+                values[j] = copyStorage(this.columns[j], this.rowCount, true);
+                valuesOwned[j] = true;
+            }
+        }
+        DoubleDataFrame frame = new DoubleDataFrame(this.columnNames, values, valuesOwned, this.rowCount);
+        frame.parallel = this.parallel;
+        frame.offHeap = true;
+        return frame;
+    }
+
+    /**
+     * Gives a version of this dataframe whose new columns are stored on the heap. Columns that are stored outside of
+     * the heap are copied onto the heap; columns mapped from a file stay mapped.
+     *
+     * @return an on-heap dataframe with the same columns and rows
+     */
+
+    public DoubleDataFrame onHeap() {
+        DoubleColumn[] values = new DoubleColumn[this.columns.length];
+        boolean[] valuesOwned = new boolean[values.length];
+        for(int j = 0; j < values.length; j++){
+            if(storageOf(this.columns[j]) instanceof DirectColumn){
+                double[] copy = new double[this.rowCount];
+                this.columns[j].copyTo(0, copy, 0, this.rowCount);
+                values[j] = new ArrayColumn(copy);
+                if(this.columns[j] instanceof NullableColumn){
+                    values[j] = ((NullableColumn) this.columns[j]).withValues(values[j]);
+                }
+                valuesOwned[j] = true;
+            }
+            else{
+                values[j] = shareColumn(j);
+            }
+        }
+        DoubleDataFrame frame = new DoubleDataFrame(this.columnNames, values, valuesOwned, this.rowCount);
+        frame.parallel = this.parallel;
+        frame.offHeap = false;
+        return frame;
+    }
+
+    /**
+     * Stores every column of this dataframe in its most compact encoding, if one takes at most half of the memory of
+     * the plain values: runs of equal values are run-length encoded, whole numbers in a small range are stored relative
+     * to their minimum in one, two or four bytes, and columns with at most 256 distinct values are dictionary encoded.
+     * The values themselves do not change. Encoded columns are read-only, so the first write to an encoded column
+     * decodes it again. Columns that are stored in buffers, such as mapped or off-heap columns, are left as they are.
+     */
+
+    public void compact() {
+        for(int j = 0; j < this.columns.length; j++){
+            DoubleColumn column = this.columns[j];
+            DoubleColumn stored = storageOf(column);
+            if(stored instanceof BufferColumn || stored instanceof EncodedColumn || stored instanceof ComputedColumn){
+                continue;
+            }
+            DoubleColumn encoded = ColumnEncoder.encode(stored, this.rowCount);
+            if(encoded != stored){
+                this.columns[j] = column instanceof NullableColumn ? ((NullableColumn) column).withValues(encoded) : encoded;
+                this.owned[j] = true;
+            }
+        }
+    }
+
+    /**
+     * @return whether new columns of this dataframe are stored outside of the heap
+     */
+
+    public boolean isOffHeap() {
+        return this.offHeap;
+    }
+
+    /**
+     * @return a lazy query plan that reads from this dataframe
+     */
+
+    @Override
+    public LazyDataFrame lazy() {
+        return new LazyDataFrame(this);
+    }
+
+    /**
+     * Gives the running aggregates of a column: the number of present values, their sum, sum of squares, minimum and
+     * maximum. The aggregates are computed on the first request and then kept up to date by every write to the
+     * column, so later requests do not scan the column again.
+     *
+     * @param colName the name of the column
+     * @return a copy of the aggregates of the column, which does not change with later writes
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    public ColumnStatistics columnStatistics(String colName) throws IllegalArgumentException {
+        return statisticsOf(indexOf(colName)).snapshot();
+    }
+
+    /**
+     *  @return a Statistics object with itself given to it as argument
+     */
+
+    @Override
+    public DataFrameStatistics statistics()
+    {
+        return new Statistic(this);
+    }
+
+    /**
+     * Creates a new DataFrame from a selection of the columns and rows of this DataFrame, followed by new columns.
+     * If all rows are retained the selected columns are shared with the new DataFrame, otherwise the values of the
+     * retained rows are gathered into new columns. The new columns are owned by the new DataFrame.
+     *
+     * @param colIndices the positions of the columns of this DataFrame to retain, in order
+     * @param rows the indices of the rows to retain in their new order, or null to retain every row
+     * @param rowCount the number of rows to retain
+     * @param newNames the names of the new columns
+     * @param newColumns the values of the new columns, each of at least length rowCount
+     * @return the derived DataFrame
+     */
+
+    DoubleDataFrame derive(int[] colIndices, int[] rows, int rowCount, List<String> newNames, double[][] newColumns) {
+        return derive(colIndices, rows, rowCount, newNames, newColumns, new BitSet[newColumns.length]);
+    }
+
+    /**
+     * Creates a new DataFrame from a selection of the columns and rows of this DataFrame, followed by new columns with
+     * missing values.
+     *
+     * @param colIndices the positions of the columns of this DataFrame to retain, in order
+     * @param rows the indices of the rows to retain in their new order, or null to retain every row
+     * @param rowCount the number of rows to retain
+     * @param newNames the names of the new columns
+     * @param newColumns the values of the new columns, each of at least length rowCount
+     * @param missing for every new column the rows whose value is missing, or null if every value is present
+     * @return the derived DataFrame
+     */
+
+    DoubleDataFrame derive(int[] colIndices, int[] rows, int rowCount, List<String> newNames, double[][] newColumns, BitSet[] missing) {
+        DoubleColumn[] stored = new DoubleColumn[newColumns.length];
+        for(int k = 0; k < newColumns.length; k++){
+            stored[k] = this.offHeap ? DirectColumn.copyOf(new ArrayColumn(newColumns[k]), rowCount) : new ArrayColumn(newColumns[k]);
+            stored[k] = withMissing(stored[k], missing[k]);
+        }
+        return derive(colIndices, rows, rowCount, newNames, stored);
+    }
+
+    /**
+     * Marks rows of a column as missing, by wrapping the column in a NullableColumn.
+     *
+     * @param column the storage of the column
+     * @param missing the rows whose value is missing, or null if every value is present
+     * @return the column itself if no row is missing, otherwise a NullableColumn on top of it
+     */
+
+    static DoubleColumn withMissing(DoubleColumn column, BitSet missing) {
+        if(missing == null || missing.isEmpty()){
+            return column;
+        }
+        NullableColumn nullable = new NullableColumn(column);
+        for(int i = missing.nextSetBit(0); i >= 0; i = missing.nextSetBit(i + 1)){
+            nullable.setMissing(i);
+        }
+        return nullable;
+    }
+
+    /**
+     * Creates a new DataFrame from a selection of the columns and rows of this DataFrame, followed by new columns whose
+     * storage is already allocated.
+     *
+     * @param colIndices the positions of the columns of this DataFrame to retain, in order
+     * @param rows the indices of the rows to retain in their new order, or null to retain every row
+     * @param rowCount the number of rows to retain
+     * @param newNames the names of the new columns
+     * @param newColumns the storage of the new columns, each with at least rowCount values
+     * @return the derived DataFrame
+     */
+
+    private DoubleDataFrame derive(int[] colIndices, int[] rows, int rowCount, List<String> newNames, DoubleColumn[] newColumns) {
+
+        List<String> names = new ArrayList<>();
+        DoubleColumn[] values = new DoubleColumn[colIndices.length + newColumns.length];
+        boolean[] valuesOwned = new boolean[values.length];
+        SortedIndex[] indexesOf = new SortedIndex[values.length];
+        ColumnStatistics[] statisticsOf = new ColumnStatistics[values.length];
+
+        for(int k = 0; k < colIndices.length; k++){
+            int j = colIndices[k];
+            names.add(this.columnNames.get(j));
+            if(rows == null){
+                values[k] = shareColumn(j);
+                indexesOf[k] = this.indexes[j];
+                statisticsOf[k] = this.statistics[j] == null ? null : this.statistics[j].snapshot();
+            }
+            else{
+                values[k] = gatherStorage(this.columns[j], rows, rowCount);
+                valuesOwned[k] = true;
+            }
+        }
+
+        names.addAll(newNames);
+        for(int k = 0; k < newColumns.length; k++){
+            values[colIndices.length + k] = newColumns[k];
+            valuesOwned[colIndices.length + k] = true;
+        }
+
+        DoubleDataFrame derived = new DoubleDataFrame(names, values, valuesOwned, rowCount);
+        System.arraycopy(indexesOf, 0, derived.indexes, 0, indexesOf.length);
+        System.arraycopy(statisticsOf, 0, derived.statistics, 0, statisticsOf.length);
+        derived.parallel = this.parallel;
+        derived.offHeap = this.offHeap;
+        return derived;
+    }
+
+    /**
+     * @return the positions of all columns of this DataFrame, in order
+     */
+
+    int[] allColumnIndices() {
+        int[] indices = new int[this.columns.length];
+        for (int j = 0; j < indices.length; j++) {
+            indices[j] = j;
+        }
+        return indices;
+    }
+
+    /**
+     * Marks a column as shared with another DataFrame or with a computed column of another DataFrame, so that this
+     * DataFrame copies the array before writing to it.
+     *
+     * @param colIndex the position of the column
+     * @return the storage of the column
+     */
+
+    DoubleColumn shareColumn(int colIndex) {
+        this.owned[colIndex] = false;
+        return this.columns[colIndex];
+    }
+
+    /**
+     * Gives the storage of a column that may be written to. If the storage is shared with another DataFrame or is
+     * read-only, it is copied first and the copy replaces the original storage in this DataFrame. Since the column is
+     * about to change, its index is dropped.
+     *
+     * @param colIndex the position of the column
+     * @return the storage of the column that belongs to this DataFrame only
+     */
+
+    private DoubleColumn writableColumn(int colIndex) {
+        this.indexes[colIndex] = null;
+        if (!this.owned[colIndex] || this.columns[colIndex].isReadOnly()) {
+            this.columns[colIndex] = copyStorage(this.columns[colIndex], this.rowCount);
+            this.owned[colIndex] = true;
+        }
+        return this.columns[colIndex];
+    }
+
+    /**
+     * Allocates the storage of a new column, outside of the heap if this DataFrame is off-heap.
+     *
+     * @param length the number of values
+     * @return a new column in which every value is 0
+     */
+
+    private DoubleColumn newColumn(int length) {
+        return this.offHeap ? new DirectColumn(length) : new ArrayColumn(length);
+    }
+
+    /**
+     * Copies the storage of a column, outside of the heap if this DataFrame is off-heap.
+     *
+     * @param column the column to copy
+     * @param length the number of values of the copy
+     * @return a new column that shares no storage with the original column
+     */
+
+    private DoubleColumn copyStorage(DoubleColumn column, int length) {
+        return copyStorage(column, length, this.offHeap);
+    }
+
+    /**
+     * Copies the storage of a column, outside of the heap if requested. The validity bitmap of a column with missing
+     * values is copied along with its values.
+     *
+     * @param column  the column to copy
+     * @param length  the number of values of the copy
+     * @param offHeap whether the values of the copy are stored outside of the heap
+     * @return a new column that shares no storage with the original column
+     */
+
+    private static DoubleColumn copyStorage(DoubleColumn column, int length, boolean offHeap) {
+        if (column instanceof ComputedColumn) {
+            DoubleColumn computed = column.copy(length);
+            return offHeap ? copyStorage(computed, length, true) : computed;
+        }
+        if (column instanceof NullableColumn) {
+            NullableColumn nullable = (NullableColumn) column;
+            return nullable.withValues(copyStorage(nullable.getValues(), length, offHeap));
+        }
+        return offHeap ? DirectColumn.copyOf(column, length) : column.copy(length);
+    }
+
+    /**
+     * Gathers the values at the given rows of a column into new storage, outside of the heap if this DataFrame is
+     * off-heap. The validity of the rows is gathered along with their values.
+     *
+     * @param column the column to gather the values from
+     * @param rows   the row indices of the values to gather
+     * @param count  the number of row indices to use
+     * @return a new column with count values
+     */
+
+    private DoubleColumn gatherStorage(DoubleColumn column, int[] rows, int count) {
+        if (column instanceof ComputedColumn) {
+            DoubleColumn gathered = column.gather(rows, count);
+            return this.offHeap ? copyStorage(gathered, count, true) : gathered;
+        }
+        if (column instanceof NullableColumn) {
+            NullableColumn nullable = (NullableColumn) column;
+            return nullable.withGathered(gatherStorage(nullable.getValues(), rows, count), rows, count);
+        }
+        return this.offHeap ? DirectColumn.gatherOf(column, rows, count) : column.gather(rows, count);
+    }
+
+    /**
+     * @param column a column, which may hold missing values
+     * @return the column that stores the values
+     */
+
+    private static DoubleColumn storageOf(DoubleColumn column) {
+        return column instanceof NullableColumn ? ((NullableColumn) column).getValues() : column;
+    }
+
+    /**
+     * Gives the aggregates of a column, which are computed first if they were never requested or are stale.
+     *
+     * @param colIndex the position of the column
+     * @return the aggregates of the column, which are updated by later writes
+     */
+
+    private ColumnStatistics statisticsOf(int colIndex) {
+        if (this.statistics[colIndex] == null) {
+            this.statistics[colIndex] = new ColumnStatistics();
+        }
+        if (this.statistics[colIndex].isStale()) {
+            this.statistics[colIndex].refresh(this.columns[colIndex], this.rowCount);
+        }
+        return this.statistics[colIndex];
+    }
+
+    /**
+     * Updates the aggregates of a column, if they were requested before, with a value that is about to be written.
+     *
+     * @param colIndex the position of the column
+     * @param rowIndex the row index of the value
+     * @param present  whether the new value is present
+     * @param value    the new value
+     */
+
+    private void recordWrite(int colIndex, int rowIndex, boolean present, double value) {
+        ColumnStatistics columnStatistics = this.statistics[colIndex];
+        if (columnStatistics != null) {
+            DoubleColumn column = this.columns[colIndex];
+            columnStatistics.replace(column.isValid(rowIndex), column.get(rowIndex), present, value);
+        }
+        invalidateDependents(colIndex, rowIndex, rowIndex + 1);
+    }
+
+    /**
+     * Drops the computed values of a range of rows in the computed columns that read from a column, and in the computed
+     * columns that read from those, along with their indexes and aggregates.
+     *
+     * @param colIndex the position of the changed column
+     * @param from     the row index of the first changed value
+     * @param to       the row index after the last changed value
+     */
+
+    private void invalidateDependents(int colIndex, int from, int to) {
+        for (int k = 0; k < this.columns.length; k++) {
+            if (this.columns[k] instanceof ComputedColumn && ((ComputedColumn) this.columns[k]).sourceChanged(colIndex, from, to)) {
+                this.indexes[k] = null;
+                if (this.statistics[k] != null) {
+                    this.statistics[k].invalidate();
+                }
+                invalidateDependents(k, from, to);
+            }
+        }
+    }
+
+    /**
+     * Reads a value by position, without any checks. Used by the row and column views of this dataframe.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colIndex the position of the column
+     * @return the value stored at the entry
+     */
+
+    double valueAt(int rowIndex, int colIndex) {
+        return this.columns[colIndex].get(rowIndex);
+    }
+
+    /**
+     * Reads a value by position as an object, without any checks. Used by the row and column views of this dataframe.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colIndex the position of the column
+     * @return the value stored at the entry, or null if the value is missing
+     */
+
+    Double valueOrNull(int rowIndex, int colIndex) {
+        DoubleColumn column = this.columns[colIndex];
+        return column.isValid(rowIndex) ? column.get(rowIndex) : null;
+    }
+
+    /**
+     * Tells by position whether a value is present, without any checks.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colIndex the position of the column
+     * @return whether the value is present
+     */
+
+    boolean isValid(int rowIndex, int colIndex) {
+        return this.columns[colIndex].isValid(rowIndex);
+    }
+
+    /**
+     * Finds the next missing value of a column by position in its validity bitmap.
+     *
+     * @param colIndex the position of the column
+     * @param from     the row index to start searching at
+     * @return the row index of the next missing value, or the number of rows if there is none
+     */
+
+    int nextMissing(int colIndex, int from) {
+        return this.columns[colIndex].nextMissing(from, this.rowCount);
+    }
+
+    /**
+     * Copies all values of a column by position into the given array with a bulk copy.
+     *
+     * @param colIndex the position of the column
+     * @param dst      the array to copy the values into
+     * @param offset   the position in dst at which the first value is stored
+     * @throws IndexOutOfBoundsException if the values do not fit in dst
+     */
+
+    void copyColumn(int colIndex, double[] dst, int offset) throws IndexOutOfBoundsException {
+        if (offset < 0 || offset + this.rowCount > dst.length) {
+            throw new IndexOutOfBoundsException("Values do not fit in the destination array");
+        }
+        this.columns[colIndex].copyTo(0, dst, offset, this.rowCount);
+    }
+
+    /**
+     * Copies a range of values of a column by position into the given array with a bulk copy.
+     *
+     * @param colIndex the position of the column
+     * @param from     the row index of the first value to copy
+     * @param dst      the array to copy the values into
+     * @param offset   the position in dst at which the first value is stored
+     * @param length   the number of values to copy
+     * @throws IndexOutOfBoundsException if the range lies outside the dataframe or does not fit in dst
+     */
+
+    void copyColumn(int colIndex, int from, double[] dst, int offset, int length) throws IndexOutOfBoundsException {
+        if (from < 0 || length < 0 || from + length > this.rowCount || offset < 0 || offset + length > dst.length) {
+            throw new IndexOutOfBoundsException("Invalid range");
+        }
+        this.columns[colIndex].copyTo(from, dst, offset, length);
+    }
+
+    /**
+     * Looks up the position of a column in the dataframe.
+     *
+     * @param colName the name of the column
+     * @return the position of the column, or -1 if the dataframe has no column with this name
+     */
+
+    int findColumn(String colName) {
+        Integer index = this.columnIndices.get(colName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Checks whether the row index lies within the dataframe.
+     *
+     * @param rowIndex the row index to check
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     */
+
+    private void checkRow(int rowIndex) throws IndexOutOfBoundsException {
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+    }
+
+    /**
+     * Checks whether a column handle was created by this dataframe.
+     *
+     * @param column the handle to check
+     * @return the position of the column
+     * @throws IllegalArgumentException when the handle belongs to another dataframe
+     */
+
+    private int checkHandle(ColumnHandle column) throws IllegalArgumentException {
+        if (column.getFrame() != this) {
+            throw new IllegalArgumentException("Column handle belongs to another dataframe");
+        }
+        return column.getIndex();
+    }
+
+    /**
+     * Looks up the positions of columns in the dataframe.
+     *
+     * @param colNames the names of the columns
+     * @return the positions of the columns, in the same order
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    private int[] indicesOf(String[] colNames) throws IllegalArgumentException {
+        int[] indices = new int[colNames.length];
+        for (int k = 0; k < colNames.length; k++) {
+            indices[k] = indexOf(colNames[k]);
+        }
+        return indices;
+    }
+
+    /**
+     * Looks up the position of a column in the dataframe.
+     *
+     * @param colName the name of the column
+     * @return the position of the column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    private int indexOf(String colName) throws IllegalArgumentException {
+        Integer index = this.columnIndices.get(colName);
+        if (index == null) {
+            throw new IllegalArgumentException("Non existing column provided");
+        }
+        return index;
+    }
+}
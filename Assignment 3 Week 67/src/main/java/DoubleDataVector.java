@@ -1,6 +1,7 @@
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.stream.DoubleStream;
 
 /**
  * This class provides a DataVector of type Double, which represent a single vector of data. Data is stored in a
@@ -109,6 +110,45 @@ public class DoubleDataVector implements DataVector<Double>
         return values;
     }
 
+    /**
+     * @return all values of the DataVector as an array of primitive doubles, with NaN for missing values
+     */
+
+    @Override
+    public double[] toDoubleArray() {
+        double[] values = new double[this.vector.size()];
+        copyInto(values, 0);
+        return values;
+    }
+
+    /**
+     * @return all values of the DataVector as a stream of primitive doubles, with NaN for missing values
+     */
+
+    @Override
+    public DoubleStream doubleStream() {
+        return this.vector.values().stream().mapToDouble(value -> value == null ? Double.NaN : value);
+    }
+
+    /**
+     * Copies all values of the DataVector into the given array, unboxing them directly from the LinkedHashMap. Missing
+     * values are copied as NaN.
+     *
+     * @param dst    the array to copy the values into
+     * @param offset the position in dst at which the first value is stored
+     * @throws IndexOutOfBoundsException if the values do not fit in dst
+     */
+
+    @Override
+    public void copyInto(double[] dst, int offset) throws IndexOutOfBoundsException {
+        if (offset < 0 || offset + this.vector.size() > dst.length) {
+            throw new IndexOutOfBoundsException("Values do not fit in the destination array");
+        }
+        for (Double value : this.vector.values()) {
+            dst[offset++] = value == null ? Double.NaN : value;
+        }
+    }
+
     /**
       * @return all values of the DataVector, but as a map
      */
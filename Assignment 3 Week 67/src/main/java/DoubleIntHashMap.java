@@ -0,0 +1,159 @@
+import java.util.Arrays;
+
+/**
+ * This class provides a hash map from primitive double keys to dense int ids, without boxing. Every distinct key that is
+ * added gets the next id, starting at 0, so the ids can be used directly as positions in arrays.
+ *
+ * The map uses open addressing with linear probing in a table whose capacity is a power of two, and doubles the table
+ * when it is half full. Keys are compared by value, except that all NaN values are the same key and negative zero is
+ * the same key as positive zero.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public final class DoubleIntHashMap {
+
+    private static final int EMPTY = -1;
+
+    private long[] slotKeys;
+    private int[] slotIds;
+    private int mask;
+    private double[] keys;
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     *
+     * @param expectedSize the number of keys the map should hold without growing
+     */
+
+    public DoubleIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.slotKeys = new long[capacity];
+        this.slotIds = new int[capacity];
+        Arrays.fill(this.slotIds, EMPTY);
+        this.mask = capacity - 1;
+        this.keys = new double[Math.max(4, expectedSize)];
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of distinct keys in the map
+     */
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param id an id given out by this map
+     * @return the key that belongs to the id
+     * @throws IndexOutOfBoundsException if the id was not given out by this map
+     */
+
+    public double keyAt(int id) throws IndexOutOfBoundsException {
+        if (id < 0 || id >= this.size) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return this.keys[id];
+    }
+
+    /**
+     * Gets the id of a key.
+     *
+     * @param key the key to look up
+     * @return the id of the key, or -1 if the key is not in the map
+     */
+
+    public int get(double key) {
+        long bits = bitsOf(key);
+        for (int slot = slotOf(bits); ; slot = (slot + 1) & this.mask) {
+            int id = this.slotIds[slot];
+            if (id == EMPTY || this.slotKeys[slot] == bits) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a key, adding the key with the next id if it is not in the map yet.
+     *
+     * @param key the key to look up or add
+     * @return the id of the key
+     */
+
+    public int getOrAdd(double key) {
+        long bits = bitsOf(key);
+        int slot = slotOf(bits);
+        while (this.slotIds[slot] != EMPTY) {
+            if (this.slotKeys[slot] == bits) {
+                return this.slotIds[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+
+        // Adds the key in the empty slot at the end of its probe sequence.
+
+        int id = this.size;
+        if (id == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, 2 * id);
+        }
+        this.keys[id] = key + 0.0;
+        this.slotKeys[slot] = bits;
+        this.slotIds[slot] = id;
+        this.size++;
+        if (2 * this.size > this.slotIds.length) {
+            grow();
+        }
+        return id;
+    }
+
+    /**
+     * Doubles the capacity of the table and moves every key to its slot in the new table.
+     */
+
+    private void grow() {
+        long[] oldKeys = this.slotKeys;
+        int[] oldIds = this.slotIds;
+        this.slotKeys = new long[2 * oldKeys.length];
+        this.slotIds = new int[2 * oldIds.length];
+        Arrays.fill(this.slotIds, EMPTY);
+        this.mask = this.slotIds.length - 1;
+        for (int k = 0; k < oldIds.length; k++) {
+            if (oldIds[k] != EMPTY) {
+                int slot = slotOf(oldKeys[k]);
+                while (this.slotIds[slot] != EMPTY) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.slotKeys[slot] = oldKeys[k];
+                this.slotIds[slot] = oldIds[k];
+            }
+        }
+    }
+
+    /**
+     * @param key a key
+     * @return the bits that identify the key, equal for all NaN values and for both zeros
+     */
+
+    private static long bitsOf(double key) {
+        return Double.doubleToLongBits(key + 0.0);
+    }
+
+    /**
+     * Mixes all bits of a key into the position of its first slot, so keys that only differ in a few bits, such as
+     * consecutive whole numbers, are spread over the table.
+     *
+     * @param bits the bits of a key
+     * @return the first slot of the key
+     */
+
+    private int slotOf(long bits) {
+        bits ^= bits >>> 33;
+        bits *= 0xff51afd7ed558ccdL;
+        bits ^= bits >>> 33;
+        bits *= 0xc4ceb9fe1a85ec53L;
+        bits ^= bits >>> 33;
+        return (int) bits & this.mask;
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * This class provides a DataVector of type Double that is a view on a single row of a DoubleDataFrame. The values are
+ * read directly from the columns of the DataFrame, so creating a row vector does not copy any data and changes to the
+ * DataFrame are visible through the vector. The name of the vector is only created when it is requested.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class DoubleRowVector implements DataVector<Double> {
+
+    private final DoubleDataFrame frame;
+    private final int row;
+    private final int position;
+
+    /**
+     * Constructs a view on a row of the DataFrame. Row vectors are obtained via DoubleDataFrame.getRow.
+     *
+     * @param frame the dataframe that holds the values
+     * @param row the index of the row in the dataframe
+     */
+
+    DoubleRowVector(DoubleDataFrame frame, int row) {
+        this(frame, row, row);
+    }
+
+    /**
+     * Constructs a view on a row of the DataFrame that is named after its position in a view on the DataFrame, such
+     * as a FilteredDataFrame.
+     *
+     * @param frame the dataframe that holds the values
+     * @param row the index of the row in the dataframe
+     * @param position the index of the row in the view, which names the vector
+     */
+
+    DoubleRowVector(DoubleDataFrame frame, int row, int position) {
+        this.frame = frame;
+        this.row = row;
+        this.position = position;
+    }
+
+    /**
+     * @return the index of the row in the DataFrame
+     */
+
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * @return the name of the DataVector, which is "row_" followed by the row index in the DataFrame or view
+     */
+
+    @Override
+    public String getName() {
+        return "row_" + this.position;
+    }
+
+    /**
+     * @return the names of the columns of the DataFrame
+     */
+
+    @Override
+    public List<String> getEntryNames() {
+        return this.frame.getColumnNames();
+    }
+
+    /**
+     * Returns the value of the given column in this row.
+     *
+     * @param entryName the name of the entry to extract
+     * @return the value stored in the column, or null if the value is missing or the DataFrame has no column with this name
+     */
+
+    @Override
+    public Double getValue(String entryName) {
+        int column = this.frame.findColumn(entryName);
+        if (column < 0) {
+            return null;
+        }
+        return this.frame.valueOrNull(this.row, column);
+    }
+
+    /**
+     * @return a list view on the values of this row, in the order of the columns
+     */
+
+    @Override
+    public List<Double> getValues() {
+        return new AbstractList<Double>() {
+            @Override
+            public Double get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return frame.valueOrNull(row, index);
+            }
+
+            @Override
+            public int size() {
+                return frame.getColumnCount();
+            }
+        };
+    }
+
+    /**
+     * @return a copy of the values of this row as an array of primitive doubles, with NaN for missing values
+     */
+
+    @Override
+    public double[] toDoubleArray() {
+        double[] values = new double[this.frame.getColumnCount()];
+        copyInto(values, 0);
+        return values;
+    }
+
+    /**
+     * @return the values of this row as a stream of primitive doubles, read directly from the DataFrame
+     */
+
+    @Override
+    public DoubleStream doubleStream() {
+        return IntStream.range(0, this.frame.getColumnCount()).mapToDouble(j -> this.frame.valueAt(this.row, j));
+    }
+
+    /**
+     * Copies the values of this row into the given array.
+     *
+     * @param dst    the array to copy the values into
+     * @param offset the position in dst at which the first value is stored
+     * @throws IndexOutOfBoundsException if the values do not fit in dst
+     */
+
+    @Override
+    public void copyInto(double[] dst, int offset) throws IndexOutOfBoundsException {
+        int count = this.frame.getColumnCount();
+        if (offset < 0 || offset + count > dst.length) {
+            throw new IndexOutOfBoundsException("Values do not fit in the destination array");
+        }
+        for (int j = 0; j < count; j++) {
+            dst[offset + j] = this.frame.valueAt(this.row, j);
+        }
+    }
+
+    /**
+     * @return a copy of the values of this row in a map with the column names as keys
+     */
+
+    @Override
+    public Map<String, Double> asMap() {
+        Map<String, Double> map = new LinkedHashMap<>();
+        List<String> names = this.frame.getColumnNames();
+        for (int j = 0; j < names.size(); j++) {
+            map.put(names.get(j), this.frame.valueOrNull(this.row, j));
+        }
+        return map;
+    }
+
+    /**
+     * @return A String with the name and all values of the DataVector
+     */
+
+    @Override
+    public String toString() {
+        return "DoubleRowVector{" +
+                "name=" + getName() +
+                ", vector=" + asMap() +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * This class provides the common behaviour of columns whose values are stored in a compressed encoding. An encoded
+ * column is read-only: the first write to it makes the DataFrame decode it into a writable ArrayColumn, after which the
+ * column is only compressed again by DoubleDataFrame.compact.
+ *
+ * Subclasses read their values without decoding the whole column, and answer reductions and range queries directly on
+ * their encoded form where that saves work.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public abstract class EncodedColumn extends DoubleColumn {
+
+    /**
+     * @return the approximate number of bytes taken by the encoded values
+     */
+
+    public abstract long encodedSize();
+
+    /**
+     * @throws UnsupportedOperationException always, since encoded columns are read-only
+     */
+
+    @Override
+    public void set(int row, double value) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Encoded column is read-only");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /**
+     * Decodes the first values of this column into an array on the heap.
+     *
+     * @param length the number of values of the copy
+     * @return a new writable column that shares no storage with this column
+     */
+
+    @Override
+    public DoubleColumn copy(int length) {
+        double[] values = new double[length];
+        copyTo(0, values, 0, Math.min(length, size()));
+        return new ArrayColumn(values);
+    }
+}
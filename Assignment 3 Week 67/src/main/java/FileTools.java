@@ -1,10 +1,1232 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
 /**
  * Provides a tool to read and write files.
  *
+ * CSV files are read in a single streaming pass: the characters are parsed in a reusable buffer and the numbers are
+ * written straight into the columns of the resulting DataFrame, without splitting lines into Strings. The first line of
+ * a CSV file holds the names of the columns, every other line holds one row of numbers. Empty fields are read as
+ * missing values, while a field "NaN" is read as NaN.
+ *
+ * Binary files store a DataFrame column by column. The file starts with a header, all numbers of which are little-endian:
+ * the 8 magic bytes "DFRAME02", the number of columns and the number of rows as ints, and for every column the length
+ * of its UTF-8 encoded name as an int, the name itself and an int that is 1 if the column has missing values and 0
+ * otherwise. The header is padded with zeros to a multiple of 8 bytes and ends with a validity section: for every
+ * column with missing values, in order, a bitmap of (rowCount + 63) / 64 longs in which bit i is set if the value at
+ * row i is present. After the header every column follows as rowCount little-endian doubles, with NaN at the missing
+ * rows. Files in the older "DFRAME01" format have neither the flags nor the validity section and are still read.
+ * Binary files are opened by mapping the columns into memory, so opening takes constant time and the values are only
+ * read from disk when they are used.
+ *
+ * Excel workbooks (.xlsx) are streamed in both directions: sheets are read through the SAX event model of POI and
+ * written with an SXSSFWorkbook, so neither needs the whole workbook in memory.
+ *
+ * DataFrames read from CSV files and Excel sheets are compacted, so repetitive and low-cardinality columns are stored in
+ * a compressed encoding; see DoubleDataFrame.compact.
+ *
  * @author 621810cc Carlos de Cloet
  */
 
 public class FileTools
 {
 
-}
\ No newline at end of file
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final int EXCEL_ROW_WINDOW = 100;
+
+    private static final byte[] BINARY_MAGIC = "DFRAME02".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LEGACY_BINARY_MAGIC = "DFRAME01".getBytes(StandardCharsets.US_ASCII);
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Reads a comma separated file into a DataFrame.
+     *
+     * @param file the file to read
+     * @return a DataFrame with all columns of the file
+     * @throws IOException if the file cannot be read or contains a value that is not a number
+     */
+
+    public static DoubleDataFrame readCSV(File file) throws IOException {
+        return readCSV(file, ',', column -> true);
+    }
+
+    /**
+     * Reads a separated file into a DataFrame, skipping the columns that are not accepted by the filter. The values of
+     * skipped columns are not parsed.
+     *
+     * @param file the file to read
+     * @param separator the character that separates the fields on a line
+     * @param columnFilter a predicate that indicates, given the name of a column, whether it should be read
+     * @return a DataFrame with the accepted columns of the file
+     * @throws IOException if the file cannot be read or contains a value that is not a number
+     */
+
+    public static DoubleDataFrame readCSV(File file, char separator, Predicate<String> columnFilter) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return readCSV(reader, separator, columnFilter);
+        }
+    }
+
+    /**
+     * Reads separated data from a Reader into a DataFrame, skipping the columns that are not accepted by the filter.
+     * The reader is not closed.
+     *
+     * @param reader the reader to read the characters from
+     * @param separator the character that separates the fields on a line
+     * @param columnFilter a predicate that indicates, given the name of a column, whether it should be read
+     * @return a DataFrame with the accepted columns
+     * @throws IOException if the data cannot be read or contains a value that is not a number
+     */
+
+    public static DoubleDataFrame readCSV(Reader reader, char separator, Predicate<String> columnFilter) throws IOException {
+
+        LineReader lines = new LineReader(reader);
+        if (!lines.next()) {
+            throw new IOException("File does not contain a header");
+        }
+
+        // Parses the header and decides for every field of a line to which column it belongs, or -1 if it is skipped.
+
+        List<String> header = splitHeader(lines, separator);
+        List<String> names = new ArrayList<>();
+        int[] target = new int[header.size()];
+        for (int f = 0; f < header.size(); f++) {
+            if (columnFilter.test(header.get(f))) {
+                target[f] = names.size();
+                names.add(header.get(f));
+            }
+            else {
+                target[f] = -1;
+            }
+        }
+
+        ColumnBuffer[] columns = new ColumnBuffer[names.size()];
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = new ColumnBuffer();
+        }
+
+        // Parses every line field by field and appends the numbers of the retained fields to their columns.
+
+        int rows = 0;
+        while (lines.next()) {
+            if (lines.start == lines.end) {
+                continue;
+            }
+            int fieldStart = lines.start;
+            for (int f = 0; f < target.length; f++) {
+                int fieldEnd = lines.indexOf(separator, fieldStart);
+                if (fieldEnd < 0) {
+                    if (f != target.length - 1) {
+                        throw new IOException("Line " + lines.lineNumber + " has fewer than " + target.length + " fields");
+                    }
+                    fieldEnd = lines.end;
+                }
+                else if (f == target.length - 1) {
+                    throw new IOException("Line " + lines.lineNumber + " has more than " + target.length + " fields");
+                }
+                if (target[f] >= 0) {
+                    if (isBlank(lines.buffer, fieldStart, fieldEnd)) {
+                        columns[target[f]].addMissing();
+                    }
+                    else {
+                        columns[target[f]].add(parseDouble(lines.buffer, fieldStart, fieldEnd, lines.lineNumber));
+                    }
+                }
+                fieldStart = fieldEnd + 1;
+            }
+            rows++;
+        }
+
+        DoubleColumn[] values = new DoubleColumn[columns.length];
+        for (int j = 0; j < columns.length; j++) {
+            values[j] = columns[j].toColumn();
+        }
+        DoubleDataFrame frame = DoubleDataFrame.fromColumns(names, values, rows);
+        frame.compact();
+        return frame;
+    }
+
+    /**
+     * Writes a DataFrame to a comma separated file.
+     *
+     * @param df the DataFrame to write
+     * @param file the file to write to
+     * @throws IOException if the file cannot be written
+     */
+
+    public static void writeCSV(DataFrame<Double> df, File file) throws IOException {
+        writeCSV(df, file, ',');
+    }
+
+    /**
+     * Writes a DataFrame to a separated file. The first line holds the names of the columns. Missing values are written
+     * as empty fields and NaN as "NaN", so both are read back as they were.
+     *
+     * @param df the DataFrame to write
+     * @param file the file to write to
+     * @param separator the character that separates the fields on a line
+     * @throws IOException if the file cannot be written
+     */
+
+    public static void writeCSV(DataFrame<Double> df, File file, char separator) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeCSV(df, writer, separator);
+        }
+    }
+
+    /**
+     * Writes a DataFrame as separated data to a Writer. The writer is flushed but not closed.
+     *
+     * @param df the DataFrame to write
+     * @param writer the writer to write the characters to
+     * @param separator the character that separates the fields on a line
+     * @throws IOException if the data cannot be written
+     */
+
+    public static void writeCSV(DataFrame<Double> df, Writer writer, char separator) throws IOException {
+
+        BufferedWriter out = new BufferedWriter(writer, BUFFER_SIZE);
+        List<String> names = df.getColumnNames();
+        StringBuilder line = new StringBuilder();
+
+        for (int j = 0; j < names.size(); j++) {
+            if (j > 0) {
+                line.append(separator);
+            }
+            appendName(line, names.get(j), separator);
+        }
+        line.append('\n');
+        out.append(line);
+
+        // Reads a DoubleDataFrame through column handles, so no values are boxed. Other DataFrames are read by name.
+
+        DoubleDataFrame primitive = df instanceof DoubleDataFrame ? (DoubleDataFrame) df : null;
+        ColumnHandle[] handles = new ColumnHandle[names.size()];
+        for (int j = 0; primitive != null && j < handles.length; j++) {
+            handles[j] = primitive.columnIndex(names.get(j));
+        }
+
+        for (int i = 0; i < df.getRowCount(); i++) {
+            line.setLength(0);
+            for (int j = 0; j < names.size(); j++) {
+                if (j > 0) {
+                    line.append(separator);
+                }
+                if (primitive != null) {
+                    if (primitive.isValid(i, j)) {
+                        line.append(primitive.getDouble(i, handles[j]));
+                    }
+                }
+                else {
+                    Double value = df.getValue(i, names.get(j));
+                    if (value != null) {
+                        line.append(value.doubleValue());
+                    }
+                }
+            }
+            line.append('\n');
+            out.append(line);
+        }
+        out.flush();
+    }
+
+    /**
+     * Opens a binary file as a DataFrame by mapping its columns into memory. No values are read until they are used.
+     * The mapping is read-only: the first write to a column copies that column to the heap, so the file is never
+     * changed.
+     *
+     * @param file the file to open
+     * @return a DataFrame on top of the mapped columns
+     * @throws IOException if the file cannot be read or is not a binary DataFrame file
+     */
+
+    public static DoubleDataFrame readBinary(File file) throws IOException {
+        return readBinary(file, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Opens a range of rows of a binary file as a DataFrame by mapping only that part of its columns into memory. If
+     * the file has fewer rows than requested, the DataFrame holds the rows up to the end of the file. The mapping is
+     * read-only, as with readBinary(File).
+     *
+     * @param file the file to open
+     * @param fromRow the index of the first row to open
+     * @param rows the maximum number of rows to open
+     * @return a DataFrame on top of the mapped range of the columns
+     * @throws IOException if the file cannot be read or is not a binary DataFrame file
+     * @throws IllegalArgumentException if fromRow or rows is negative
+     */
+
+    public static DoubleDataFrame readBinary(File file, long fromRow, int rows) throws IOException, IllegalArgumentException {
+        if (fromRow < 0 || rows < 0) {
+            throw new IllegalArgumentException("Negative row range");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+            // Reads the header.
+
+            ByteBuffer header = readHeader(channel, file);
+            boolean legacy = header.get(BINARY_MAGIC.length - 1) == LEGACY_BINARY_MAGIC[BINARY_MAGIC.length - 1];
+            int columnCount = header.getInt();
+            int rowCount = header.getInt();
+
+            long position = header.limit();
+            List<String> names = new ArrayList<>();
+            boolean[] hasMissing = new boolean[columnCount];
+            for (int j = 0; j < columnCount; j++) {
+                int length = readFully(channel, position, 4).getInt();
+                if (length < 0) {
+                    throw new IOException("Invalid header in " + file);
+                }
+                ByteBuffer name = readFully(channel, position + 4, length);
+                names.add(new String(name.array(), 0, length, StandardCharsets.UTF_8));
+                position += 4 + length;
+                if (!legacy) {
+                    hasMissing[j] = readFully(channel, position, 4).getInt() != 0;
+                    position += 4;
+                }
+            }
+
+            // Finds the bitmap of every column with missing values in the validity section behind the names.
+
+            long validityBytes = 8L * Bitmaps.words(rowCount);
+            long[] validityStart = new long[columnCount];
+            long dataStart = (position + 7) & ~7L;
+            for (int j = 0; j < columnCount; j++) {
+                validityStart[j] = hasMissing[j] ? dataStart : -1;
+                dataStart += hasMissing[j] ? validityBytes : 0;
+            }
+            long columnBytes = 8L * rowCount;
+            if (channel.size() < dataStart + columnCount * columnBytes) {
+                throw new IOException("File is shorter than its header describes: " + file);
+            }
+
+            // Maps the requested rows of every column in segments, which stay valid after the channel is closed.
+
+            int rangeCount = (int) Math.max(0, Math.min(rows, rowCount - fromRow));
+            DoubleColumn[] columns = new DoubleColumn[columnCount];
+            for (int j = 0; j < columnCount; j++) {
+                long columnStart = dataStart + j * columnBytes + 8 * Math.min(fromRow, rowCount);
+                DoubleBuffer[] segments = new DoubleBuffer[BufferColumn.segmentCount(rangeCount)];
+                for (int k = 0; k < segments.length; k++) {
+                    long first = (long) k * BufferColumn.SEGMENT_SIZE;
+                    long count = Math.min(BufferColumn.SEGMENT_SIZE, rangeCount - first);
+                    segments[k] = channel.map(FileChannel.MapMode.READ_ONLY, columnStart + 8 * first, 8 * count)
+                            .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                }
+                columns[j] = new BufferColumn(segments, rangeCount);
+                if (validityStart[j] >= 0 && rangeCount > 0) {
+                    columns[j] = withValidity(columns[j], readValidity(channel, validityStart[j], fromRow, rangeCount));
+                }
+            }
+            return DoubleDataFrame.fromColumns(names, columns, rangeCount);
+        }
+    }
+
+    /**
+     * Reads the bits of a range of rows from a validity bitmap in a binary file.
+     *
+     * @param channel the channel to read from
+     * @param position the position of the first word of the bitmap
+     * @param fromRow the index of the first row of the range
+     * @param count the number of rows of the range
+     * @return a bitmap in which bit i is the bit of row fromRow + i
+     * @throws IOException if the bitmap cannot be read
+     */
+
+    private static long[] readValidity(FileChannel channel, long position, long fromRow, int count) throws IOException {
+        int shift = (int) (fromRow & 63);
+        int stored = Bitmaps.words(shift + count);
+        ByteBuffer words = readFully(channel, position + 8 * (fromRow >>> 6), 8 * stored);
+        long[] validity = new long[Bitmaps.words(count)];
+        for (int w = 0; w < validity.length; w++) {
+            long low = words.getLong(8 * w) >>> shift;
+            long high = shift != 0 && w + 1 < stored ? words.getLong(8 * (w + 1)) << (64 - shift) : 0L;
+            validity[w] = low | high;
+        }
+        return Bitmaps.copy(validity, count, count, false);
+    }
+
+    /**
+     * Marks the rows of a column that are not set in a validity bitmap as missing.
+     *
+     * @param column the storage of the column
+     * @param validity the bitmap in which bit i is set if the value at row i is present
+     * @return the column itself if every value is present, otherwise a NullableColumn on top of it
+     */
+
+    private static DoubleColumn withValidity(DoubleColumn column, long[] validity) {
+        int present = 0;
+        for (long word : validity) {
+            present += Long.bitCount(word);
+        }
+        return present == column.size() ? column : new NullableColumn(column, validity);
+    }
+
+    /**
+     * Reads the number of rows of a binary file from its header, without mapping any column.
+     *
+     * @param file the file to read
+     * @return the number of rows of the file
+     * @throws IOException if the file cannot be read or is not a binary DataFrame file
+     */
+
+    static int binaryRowCount(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel, file);
+            header.getInt();
+            return header.getInt();
+        }
+    }
+
+    /**
+     * Reads and checks the fixed part of the header of a binary file: the magic bytes, the number of columns and the
+     * number of rows.
+     *
+     * @param channel the channel to read from
+     * @param file the file that is read, for the error messages
+     * @return a buffer positioned at the number of columns, followed by the number of rows
+     * @throws IOException if the header cannot be read or is not a valid header
+     */
+
+    private static ByteBuffer readHeader(FileChannel channel, File file) throws IOException {
+        ByteBuffer header = readFully(channel, 0, BINARY_MAGIC.length + 8);
+        byte[] magic = new byte[BINARY_MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, BINARY_MAGIC) && !Arrays.equals(magic, LEGACY_BINARY_MAGIC)) {
+            throw new IOException("Not a binary DataFrame file: " + file);
+        }
+        if (header.getInt(BINARY_MAGIC.length) < 0 || header.getInt(BINARY_MAGIC.length + 4) < 0) {
+            throw new IOException("Invalid header in " + file);
+        }
+        return header;
+    }
+
+    /**
+     * Writes a DataFrame to a binary file, which can be opened again with readBinary. Missing values are written as NaN
+     * and recorded in the validity section of the header, so they stay distinct from NaN values.
+     *
+     * @param df the DataFrame to write
+     * @param file the file to write to
+     * @throws IOException if the file cannot be written
+     */
+
+    public static void writeBinary(DataFrame<Double> df, File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            // Collects the missing values of every column.
+
+            List<String> names = df.getColumnNames();
+            DoubleDataFrame primitive = df instanceof DoubleDataFrame ? (DoubleDataFrame) df : null;
+            BitSet[] missing = new BitSet[names.size()];
+            for (int j = 0; j < names.size(); j++) {
+                if (primitive != null) {
+                    missing[j] = new BitSet();
+                    for (int i = primitive.nextMissing(j, 0); i < df.getRowCount(); i = primitive.nextMissing(j, i + 1)) {
+                        missing[j].set(i);
+                    }
+                }
+                else {
+                    missing[j] = df.getColumn(names.get(j)).missingEntries();
+                }
+            }
+
+            // Writes the header, padded to a multiple of 8 bytes, followed by the validity section.
+
+            List<byte[]> encoded = new ArrayList<>();
+            int headerLength = BINARY_MAGIC.length + 8;
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                headerLength += 8 + bytes.length;
+            }
+            ByteBuffer header = ByteBuffer.allocate((headerLength + 7) & ~7).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(BINARY_MAGIC);
+            header.putInt(names.size());
+            header.putInt(df.getRowCount());
+            for (int j = 0; j < names.size(); j++) {
+                header.putInt(encoded.get(j).length);
+                header.put(encoded.get(j));
+                header.putInt(missing[j].isEmpty() ? 0 : 1);
+            }
+            header.position(0);
+            writeFully(channel, header);
+
+            for (int j = 0; j < names.size(); j++) {
+                if (!missing[j].isEmpty()) {
+                    long[] validity = Bitmaps.allSet(df.getRowCount());
+                    for (int i = missing[j].nextSetBit(0); i >= 0; i = missing[j].nextSetBit(i + 1)) {
+                        Bitmaps.set(validity, i, false);
+                    }
+                    ByteBuffer words = ByteBuffer.allocate(8 * validity.length).order(ByteOrder.LITTLE_ENDIAN);
+                    words.asLongBuffer().put(validity);
+                    writeFully(channel, words);
+                }
+            }
+
+            // Writes every column in blocks, copying the values of a DoubleDataFrame in bulk.
+
+            double[] block = new double[BUFFER_SIZE / 8];
+            ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            DoubleBuffer doubles = bytes.asDoubleBuffer();
+            for (int j = 0; j < names.size(); j++) {
+                for (int from = 0; from < df.getRowCount(); from += block.length) {
+                    int length = Math.min(block.length, df.getRowCount() - from);
+                    if (primitive != null) {
+                        primitive.copyColumn(j, from, block, 0, length);
+                    }
+                    else {
+                        for (int i = 0; i < length; i++) {
+                            block[i] = valueOrNaN(df, from + i, names.get(j));
+                        }
+                    }
+                    doubles.clear();
+                    doubles.put(block, 0, length);
+                    bytes.clear();
+                    bytes.limit(8 * length);
+                    writeFully(channel, bytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the first sheet of an Excel workbook into a DataFrame.
+     *
+     * @param file the .xlsx file to read
+     * @return a DataFrame with all columns of the first sheet
+     * @throws IOException if the file cannot be read or contains a value that is not a number
+     */
+
+    public static DoubleDataFrame readExcel(File file) throws IOException {
+        return readExcel(file, null, column -> true);
+    }
+
+    /**
+     * Reads a sheet of an Excel workbook into a DataFrame, skipping the columns that are not accepted by the filter.
+     * The sheet is streamed through the SAX event model of POI, so only a single row is held in memory besides the
+     * columns of the result. The first non-empty row of the sheet holds the names of the columns, every other row holds
+     * one row of numbers. Blank cells are read as missing values, cells with the text "NaN" as NaN, and empty rows are
+     * skipped.
+     *
+     * @param file the .xlsx file to read
+     * @param sheetName the name of the sheet to read, or null to read the first sheet
+     * @param columnFilter a predicate that indicates, given the name of a column, whether it should be read
+     * @return a DataFrame with the accepted columns of the sheet
+     * @throws IOException if the file cannot be read, does not contain the sheet or contains a value that is not a
+     * number
+     */
+
+    public static DoubleDataFrame readExcel(File file, String sheetName, Predicate<String> columnFilter) throws IOException {
+        OPCPackage workbook;
+        try {
+            workbook = OPCPackage.open(file, PackageAccess.READ);
+        }
+        catch (InvalidFormatException | IllegalArgumentException e) {
+            throw new IOException("Not an Excel workbook: " + file, e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(workbook);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(workbook);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+            // Streams the requested sheet into the columns. Styles are not read, so numbers arrive unformatted.
+
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheetName == null || sheetName.equals(sheets.getSheetName())) {
+                        SheetReader rows = new SheetReader(columnFilter);
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new XSSFSheetXMLHandler(null, strings, rows, new DataFormatter(), false));
+                        parser.parse(new InputSource(sheet));
+                        return rows.toDataFrame();
+                    }
+                }
+            }
+            throw new IOException("Workbook does not contain sheet " + sheetName + ": " + file);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        catch (SAXException e) {
+            if (e.getException() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getException()).getCause();
+            }
+            throw new IOException("Invalid Excel workbook: " + file, e);
+        }
+        catch (OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("Invalid Excel workbook: " + file, e);
+        }
+        finally {
+            workbook.revert();
+        }
+    }
+
+    /**
+     * Writes a DataFrame to an Excel workbook with a single sheet named "DataFrame".
+     *
+     * @param df the DataFrame to write
+     * @param file the .xlsx file to write to
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the DataFrame does not fit in a sheet
+     */
+
+    public static void writeExcel(DataFrame<Double> df, File file) throws IOException, IllegalArgumentException {
+        writeExcel(df, file, "DataFrame");
+    }
+
+    /**
+     * Writes a DataFrame to an Excel workbook with a single sheet. The workbook is streamed: only the last
+     * EXCEL_ROW_WINDOW rows are kept in memory, older rows are flushed to a temporary file, which is removed afterwards.
+     * The first row of the sheet holds the names of the columns. Missing values are written as blank cells and NaN as
+     * the text "NaN", as Excel has no number for it.
+     *
+     * @param df the DataFrame to write
+     * @param file the .xlsx file to write to
+     * @param sheetName the name of the sheet
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the DataFrame does not fit in a sheet
+     */
+
+    public static void writeExcel(DataFrame<Double> df, File file, String sheetName) throws IOException, IllegalArgumentException {
+
+        List<String> names = df.getColumnNames();
+        if (df.getRowCount() >= SpreadsheetVersion.EXCEL2007.getMaxRows()
+                || names.size() > SpreadsheetVersion.EXCEL2007.getMaxColumns()) {
+            throw new IllegalArgumentException("DataFrame does not fit in an Excel sheet");
+        }
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        try (OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet(sheetName);
+            Row header = sheet.createRow(0);
+            for (int j = 0; j < names.size(); j++) {
+                header.createCell(j).setCellValue(names.get(j));
+            }
+
+            // Reads a DoubleDataFrame through column handles, so no values are boxed. Other DataFrames are read by name.
+
+            DoubleDataFrame primitive = df instanceof DoubleDataFrame ? (DoubleDataFrame) df : null;
+            ColumnHandle[] handles = new ColumnHandle[names.size()];
+            for (int j = 0; primitive != null && j < handles.length; j++) {
+                handles[j] = primitive.columnIndex(names.get(j));
+            }
+
+            for (int i = 0; i < df.getRowCount(); i++) {
+                Row row = sheet.createRow(i + 1);
+                for (int j = 0; j < names.size(); j++) {
+                    double value;
+                    if (primitive != null) {
+                        if (!primitive.isValid(i, j)) {
+                            continue;
+                        }
+                        value = primitive.getDouble(i, handles[j]);
+                    }
+                    else {
+                        Double boxed = df.getValue(i, names.get(j));
+                        if (boxed == null) {
+                            continue;
+                        }
+                        value = boxed;
+                    }
+                    if (Double.isNaN(value)) {
+                        row.createCell(j).setCellValue("NaN");
+                    }
+                    else {
+                        row.createCell(j).setCellValue(value);
+                    }
+                }
+            }
+            workbook.write(out);
+        }
+        finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Reads a value of a DataFrame by name, reading a missing value as NaN.
+     *
+     * @param df the DataFrame to read from
+     * @param rowIndex the row index of the entry
+     * @param colName the name of the column of the entry
+     * @return the value, or NaN if the value is missing
+     */
+
+    private static double valueOrNaN(DataFrame<Double> df, int rowIndex, String colName) {
+        Double value = df.getValue(rowIndex, colName);
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * Reads a number of bytes from a channel at a given position into a new little-endian buffer.
+     *
+     * @param channel the channel to read from
+     * @param position the position of the first byte
+     * @param length the number of bytes to read
+     * @return a buffer with the bytes, positioned at its start
+     * @throws IOException if the channel ends before all bytes are read
+     */
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to a channel.
+     *
+     * @param channel the channel to write to
+     * @param buffer the bytes to write
+     * @throws IOException if the bytes cannot be written
+     */
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Splits the current line into the names of the columns. Names may be quoted with double quotes, in which case they
+     * can contain the separator, and a double quote inside a quoted name is written as two double quotes. Surrounding
+     * whitespace is removed.
+     *
+     * @param lines the reader positioned at the header line
+     * @param separator the character that separates the fields on a line
+     * @return the names of the columns
+     */
+
+    private static List<String> splitHeader(LineReader lines, char separator) {
+        List<String> names = new ArrayList<>();
+        StringBuilder name = new StringBuilder();
+        boolean quoted = false;
+        for (int k = lines.start; k < lines.end; k++) {
+            char c = lines.buffer[k];
+            if (c == '"') {
+                if (quoted && k + 1 < lines.end && lines.buffer[k + 1] == '"') {
+                    name.append('"');
+                    k++;
+                }
+                else {
+                    quoted = !quoted;
+                }
+            }
+            else if (c == separator && !quoted) {
+                names.add(name.toString().trim());
+                name.setLength(0);
+            }
+            else {
+                name.append(c);
+            }
+        }
+        names.add(name.toString().trim());
+        return names;
+    }
+
+    /**
+     * Appends the name of a column to a line, quoting it if it contains the separator or a double quote.
+     *
+     * @param line the line to append to
+     * @param name the name of the column
+     * @param separator the character that separates the fields on a line
+     */
+
+    private static void appendName(StringBuilder line, String name, char separator) {
+        if (name.indexOf(separator) < 0 && name.indexOf('"') < 0) {
+            line.append(name);
+            return;
+        }
+        line.append('"').append(name.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Parses a number from a range of characters without creating a String. Decimal numbers with at most 15
+     * significant digits and a small exponent are computed exactly from their digits; all other numbers, such as NaN,
+     * Infinity or numbers with many digits, are passed to Double.parseDouble. Surrounding whitespace and double quotes
+     * are ignored and an empty field is read as NaN.
+     *
+     * @param chars the characters to parse
+     * @param start the position of the first character of the field
+     * @param end the position after the last character of the field
+     * @param lineNumber the number of the line, used in the error message
+     * @return the parsed number
+     * @throws IOException if the field is not a number
+     */
+
+    static double parseDouble(char[] chars, int start, int end, long lineNumber) throws IOException {
+
+        while (start < end && (chars[start] <= ' ' || chars[start] == '"')) {
+            start++;
+        }
+        while (end > start && (chars[end - 1] <= ' ' || chars[end - 1] == '"')) {
+            end--;
+        }
+        if (start == end) {
+            return Double.NaN;
+        }
+
+        int pos = start;
+        boolean negative = false;
+        if (chars[pos] == '-' || chars[pos] == '+') {
+            negative = chars[pos] == '-';
+            pos++;
+        }
+
+        // Collects the significant digits in a long and counts how many of them are behind the decimal point.
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+            anyDigit = true;
+            if (mantissa != 0 || chars[pos] != '0') {
+                if (digits == 18) {
+                    return slowParse(chars, start, end, lineNumber);
+                }
+                mantissa = mantissa * 10 + (chars[pos] - '0');
+                digits++;
+            }
+            pos++;
+        }
+        if (pos < end && chars[pos] == '.') {
+            pos++;
+            while (pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || chars[pos] != '0') {
+                    if (digits == 18) {
+                        return slowParse(chars, start, end, lineNumber);
+                    }
+                    mantissa = mantissa * 10 + (chars[pos] - '0');
+                    digits++;
+                }
+                exponent--;
+                pos++;
+            }
+        }
+        if (!anyDigit) {
+            return slowParse(chars, start, end, lineNumber);
+        }
+        if (pos < end && (chars[pos] == 'e' || chars[pos] == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (chars[pos] == '-' || chars[pos] == '+')) {
+                negativeExponent = chars[pos] == '-';
+                pos++;
+            }
+            int explicit = 0;
+            int exponentStart = pos;
+            while (pos < end && chars[pos] >= '0' && chars[pos] <= '9' && explicit < 10000) {
+                explicit = explicit * 10 + (chars[pos] - '0');
+                pos++;
+            }
+            if (pos == exponentStart) {
+                return slowParse(chars, start, end, lineNumber);
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (pos != end) {
+            return slowParse(chars, start, end, lineNumber);
+        }
+
+        // Both the mantissa and the power of ten are exact doubles here, so a single multiplication or division gives
+        // the correctly rounded result.
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        }
+        else if (digits <= 15 && exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        }
+        else if (digits <= 15 && exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        }
+        else {
+            return slowParse(chars, start, end, lineNumber);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a number that is not handled by the fast path of parseDouble.
+     *
+     * @param chars the characters to parse
+     * @param start the position of the first character of the field
+     * @param end the position after the last character of the field
+     * @param lineNumber the number of the line, used in the error message
+     * @return the parsed number
+     * @throws IOException if the field is not a number
+     */
+
+    private static double slowParse(char[] chars, int start, int end, long lineNumber) throws IOException {
+        String field = new String(chars, start, end - start);
+        try {
+            return Double.parseDouble(field);
+        }
+        catch (NumberFormatException e) {
+            throw new IOException("Invalid number on line " + lineNumber + ": " + field, e);
+        }
+    }
+
+    /**
+     * Checks whether a field holds no value, in which case it is read as a missing value. Like parseDouble, it ignores
+     * white space and quotes around the field.
+     *
+     * @param chars the characters of the field
+     * @param start the position of the first character of the field
+     * @param end the position after the last character of the field
+     * @return whether the field is empty
+     */
+
+    private static boolean isBlank(char[] chars, int start, int end) {
+        for (int k = start; k < end; k++) {
+            if (chars[k] > ' ' && chars[k] != '"') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads lines from a Reader into a reusable character buffer. After a successful call to next, the current line
+     * is stored in buffer between start (inclusive) and end (exclusive), without the line terminator.
+     */
+
+    private static final class LineReader {
+
+        private final Reader reader;
+        private char[] buffer;
+        private int start;
+        private int end;
+        private int next;
+        private int limit;
+        private boolean eof;
+        private boolean skipLineFeed;
+        private long lineNumber;
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+            this.buffer = new char[BUFFER_SIZE];
+        }
+
+        /**
+         * Moves to the next line, reading more characters if the line is not complete in the buffer. Lines may end
+         * with a line feed, a carriage return or both.
+         *
+         * @return whether there is a next line
+         * @throws IOException if the reader fails
+         */
+
+        private boolean next() throws IOException {
+            int from = this.next;
+            int scan = from;
+            while (true) {
+                for (; scan < this.limit; scan++) {
+                    char c = this.buffer[scan];
+                    if (this.skipLineFeed) {
+                        this.skipLineFeed = false;
+                        if (c == '\n') {
+                            from = scan + 1;
+                            continue;
+                        }
+                    }
+                    if (c == '\n' || c == '\r') {
+                        this.start = from;
+                        this.end = scan;
+                        this.next = scan + 1;
+                        this.skipLineFeed = c == '\r';
+                        this.lineNumber++;
+                        return true;
+                    }
+                }
+                if (this.eof) {
+                    if (from == this.limit) {
+                        return false;
+                    }
+                    this.start = from;
+                    this.end = this.limit;
+                    this.next = this.limit;
+                    this.lineNumber++;
+                    return true;
+                }
+
+                // Moves the incomplete line to the front of the buffer, grows the buffer if the line fills it, and
+                // reads more characters behind it.
+
+                int remaining = this.limit - from;
+                if (remaining == this.buffer.length) {
+                    this.buffer = Arrays.copyOf(this.buffer, 2 * this.buffer.length);
+                }
+                else {
+                    System.arraycopy(this.buffer, from, this.buffer, 0, remaining);
+                }
+                this.limit = remaining;
+                scan -= from;
+                from = 0;
+                int read = this.reader.read(this.buffer, this.limit, this.buffer.length - this.limit);
+                if (read < 0) {
+                    this.eof = true;
+                }
+                else {
+                    this.limit += read;
+                }
+            }
+        }
+
+        /**
+         * Finds a character in the current line.
+         *
+         * @param c the character to find
+         * @param from the position to start searching from
+         * @return the position of the character, or -1 if the rest of the line does not contain it
+         */
+
+        private int indexOf(char c, int from) {
+            for (int k = from; k < this.end; k++) {
+                if (this.buffer[k] == c) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Receives the rows of a sheet from the SAX parser and appends their numbers to the columns. The first row that is
+     * received holds the names of the columns; a cell of a later row is placed by the column letters of its reference.
+     */
+
+    private static final class SheetReader implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Predicate<String> columnFilter;
+        private final List<String> names = new ArrayList<>();
+        private final List<String> header = new ArrayList<>();
+        private int[] target;
+        private ColumnBuffer[] columns;
+        private double[] values;
+        private boolean[] present;
+        private int rows;
+        private int rowNumber;
+        private int column;
+        private boolean empty;
+
+        private SheetReader(Predicate<String> columnFilter) {
+            this.columnFilter = columnFilter;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            this.rowNumber = rowNum + 1;
+            this.column = -1;
+            this.empty = true;
+            if (this.present != null) {
+                Arrays.fill(this.present, false);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            this.column = cellReference != null ? columnOf(cellReference) : this.column + 1;
+            if (formattedValue == null || formattedValue.isEmpty()) {
+                return;
+            }
+            this.empty = false;
+
+            if (this.target == null) {
+                while (this.header.size() < this.column) {
+                    this.header.add(null);
+                }
+                this.header.add(formattedValue.trim());
+                return;
+            }
+
+            if (this.column >= this.target.length) {
+                throw new UncheckedIOException(new IOException("Row " + this.rowNumber + " has a value outside the "
+                        + this.target.length + " named columns"));
+            }
+            if (this.target[this.column] >= 0) {
+                char[] chars = formattedValue.toCharArray();
+                try {
+                    this.values[this.target[this.column]] = parseDouble(chars, 0, chars.length, this.rowNumber);
+                    this.present[this.target[this.column]] = !isBlank(chars, 0, chars.length);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (this.empty) {
+                return;
+            }
+
+            // Decides for every cell of a row to which column it belongs, or -1 if it is skipped.
+
+            if (this.target == null) {
+                this.target = new int[this.header.size()];
+                for (int f = 0; f < this.target.length; f++) {
+                    String name = this.header.get(f);
+                    if (name == null) {
+                        throw new UncheckedIOException(new IOException("Column " + (f + 1) + " has no name"));
+                    }
+                    if (this.columnFilter.test(name)) {
+                        this.target[f] = this.names.size();
+                        this.names.add(name);
+                    }
+                    else {
+                        this.target[f] = -1;
+                    }
+                }
+                this.columns = new ColumnBuffer[this.names.size()];
+                for (int j = 0; j < this.columns.length; j++) {
+                    this.columns[j] = new ColumnBuffer();
+                }
+                this.values = new double[this.columns.length];
+                this.present = new boolean[this.columns.length];
+                return;
+            }
+
+            for (int j = 0; j < this.columns.length; j++) {
+                if (this.present[j]) {
+                    this.columns[j].add(this.values[j]);
+                }
+                else {
+                    this.columns[j].addMissing();
+                }
+            }
+            this.rows++;
+        }
+
+        private DoubleDataFrame toDataFrame() throws IOException {
+            if (this.target == null) {
+                throw new IOException("Sheet does not contain a header");
+            }
+            DoubleColumn[] data = new DoubleColumn[this.columns.length];
+            for (int j = 0; j < this.columns.length; j++) {
+                data[j] = this.columns[j].toColumn();
+            }
+            DoubleDataFrame frame = DoubleDataFrame.fromColumns(this.names, data, this.rows);
+            frame.compact();
+            return frame;
+        }
+
+        /**
+         * Computes the zero-based column of a cell reference such as "AB12" from its letters.
+         */
+
+        private static int columnOf(String cellReference) {
+            int column = 0;
+            for (int k = 0; k < cellReference.length(); k++) {
+                char c = cellReference.charAt(k);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = 26 * column + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+
+    /**
+     * Collects the values of a single column in chunks of fixed size, so growing the column never copies the values
+     * that were already read. The chunks are only joined into a single array at the end. The rows of missing values
+     * are recorded separately.
+     */
+
+    private static final class ColumnBuffer {
+
+        private final List<double[]> full = new ArrayList<>();
+        private final BitSet missing = new BitSet();
+        private double[] current = new double[CHUNK_SIZE];
+        private int size;
+
+        private void add(double value) {
+            if (this.size == CHUNK_SIZE) {
+                this.full.add(this.current);
+                this.current = new double[CHUNK_SIZE];
+                this.size = 0;
+            }
+            this.current[this.size++] = value;
+        }
+
+        private void addMissing() {
+            this.missing.set(this.full.size() * CHUNK_SIZE + this.size);
+            add(Double.NaN);
+        }
+
+        private DoubleColumn toColumn() {
+            return DoubleDataFrame.withMissing(new ArrayColumn(toArray()), this.missing);
+        }
+
+        private double[] toArray() {
+            double[] values = new double[this.full.size() * CHUNK_SIZE + this.size];
+            int offset = 0;
+            for (double[] chunk : this.full) {
+                System.arraycopy(chunk, 0, values, offset, CHUNK_SIZE);
+                offset += CHUNK_SIZE;
+            }
+            System.arraycopy(this.current, 0, values, offset, this.size);
+            return values;
+        }
+    }
+}
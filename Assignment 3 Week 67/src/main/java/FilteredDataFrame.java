@@ -0,0 +1,512 @@
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class provides a filtered view on a DoubleDataFrame: the rows of the base DataFrame whose bit is set in a BitSet,
+ * in their original order. Creating a filtered view evaluates the predicate once per row but copies no values, and
+ * summarize, statistics and further filters read the selected rows directly from the base DataFrame.
+ *
+ * Filtering a view again only evaluates the predicate on the rows that are still selected and ANDs the results into a
+ * new bitmap. Two views on the same base DataFrame can also be combined with and. Operations that need a DataFrame of
+ * their own, such as expand, sortBy or computeColumn, gather the selected rows into a DataFrame of their own.
+ *
+ * The view shares the base DataFrame, so changes to the base DataFrame are visible through the view, and setValue on
+ * the view writes to the base DataFrame.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class FilteredDataFrame implements DataFrame<Double> {
+
+    private static final int SUMMARY_CHUNK_SIZE = 1 << 16;
+
+    private final DoubleDataFrame base;
+    private final BitSet selected;
+    private final int rowCount;
+    private int[] rows;
+
+    /**
+     * Constructs a view on the selected rows of a DataFrame. Filtered views are obtained via DoubleDataFrame.filter.
+     *
+     * @param base the DataFrame that holds the values
+     * @param selected the bitmap of the selected rows of the base DataFrame, which is not copied
+     */
+
+    FilteredDataFrame(DoubleDataFrame base, BitSet selected) {
+        this.base = base;
+        this.selected = selected;
+        this.rowCount = selected.cardinality();
+    }
+
+    /**
+     * Evaluates a predicate on rows of a DataFrame. If the DataFrame is parallel, chunks of rows are evaluated in
+     * parallel; every chunk is a multiple of 64 rows, so every chunk writes its own words of the bitmap.
+     *
+     * @param frame the DataFrame whose rows are evaluated
+     * @param rowFilter the predicate to evaluate
+     * @param candidates the rows to evaluate, or null to evaluate every row
+     * @return the bitmap of the evaluated rows that are accepted by the predicate
+     */
+
+    static BitSet evaluate(DoubleDataFrame frame, Predicate<DataVector<Double>> rowFilter, BitSet candidates) {
+        int rowCount = frame.getRowCount();
+        long[] words = new long[(rowCount + 63) >>> 6];
+        ParallelTools.RangeAction action = (from, to) -> {
+            int i = candidates == null ? from : candidates.nextSetBit(from);
+            while (i >= 0 && i < to) {
+                if (rowFilter.test(new DoubleRowVector(frame, i))) {
+                    words[i >>> 6] |= 1L << i;
+                }
+                i = candidates == null ? i + 1 : candidates.nextSetBit(i + 1);
+            }
+        };
+        if (frame.isParallel()) {
+            ParallelTools.forEachChunk(rowCount, action);
+        }
+        else {
+            action.apply(0, rowCount);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * @return a copy of the bitmap of the selected rows of the base DataFrame
+     */
+
+    public BitSet getSelection() {
+        return (BitSet) this.selected.clone();
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the number of columns
+     */
+
+    @Override
+    public int getColumnCount() {
+        return this.base.getColumnCount();
+    }
+
+    /**
+     * @return a list with all column names
+     */
+
+    @Override
+    public List<String> getColumnNames() {
+        return this.base.getColumnNames();
+    }
+
+    /**
+     * Sets the value of a selected row in the base DataFrame. A null value marks the entry as missing.
+     *
+     * @param rowIndex the position of the row among the selected rows
+     * @param colName  the name of the column in which the entry is stored
+     * @param value    the new value of the entry
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    @Override
+    public void setValue(int rowIndex, String colName, Double value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        this.base.setValue(baseRow(rowIndex), colName, value);
+    }
+
+    /**
+     * Gets the value of a selected row.
+     *
+     * @param rowIndex the position of the row among the selected rows
+     * @param colName  the name of the column in which the entry is stored
+     * @return the value of the given column at the given row, or null if the value is missing
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    @Override
+    public Double getValue(int rowIndex, String colName) throws IndexOutOfBoundsException, IllegalArgumentException {
+        return this.base.getValue(baseRow(rowIndex), colName);
+    }
+
+    /**
+     * @param rowIndex the position of the row among the selected rows
+     * @return a view on the row of the base DataFrame, named after its position among the selected rows
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     */
+
+    @Override
+    public DataVector<Double> getRow(int rowIndex) throws IndexOutOfBoundsException {
+        return new DoubleRowVector(this.base, baseRow(rowIndex), rowIndex);
+    }
+
+    /**
+     * @param colName the name of the column
+     * @return a view on the selected rows of the column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    @Override
+    public DataVector<Double> getColumn(String colName) throws IllegalArgumentException {
+        return new DoubleColumnVector(this.base, columnOf(colName), selectedRows());
+    }
+
+    /**
+     * @return a list view on the selected rows
+     */
+
+    @Override
+    public List<DataVector<Double>> getRows() {
+        return new AbstractList<DataVector<Double>>() {
+            @Override
+            public DataVector<Double> get(int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    /**
+     * @return a list view on the selected rows of every column
+     */
+
+    @Override
+    public List<DataVector<Double>> getColumns() {
+        return new AbstractList<DataVector<Double>>() {
+            @Override
+            public DataVector<Double> get(int index) {
+                return getColumn(getColumnNames().get(index));
+            }
+
+            @Override
+            public int size() {
+                return getColumnCount();
+            }
+        };
+    }
+
+    /**
+     * Gathers the selected rows and expands the result.
+     *
+     * @param additionalRows the number of rows to add to the new data frame
+     * @param newCols        the names of the column to add to the new data frame.
+     * @return a DataFrame with additional columns which value are 0.
+     * @throws IllegalArgumentException the number of additional rows in negative or column names are duplicated
+     */
+
+    @Override
+    public DataFrame<Double> expand(int additionalRows, List<String> newCols) throws IllegalArgumentException {
+        return toDataFrame().expand(additionalRows, newCols);
+    }
+
+    /**
+     * Gives a view on the same rows of a projection of the base DataFrame, which shares the retained columns.
+     *
+     * @param retainColumns the names of column that should be retained
+     * @return a filtered view with the retained columns
+     * @throws IllegalArgumentException if a provided column name is not a column of the dataframe
+     */
+
+    @Override
+    public FilteredDataFrame project(Collection<String> retainColumns) throws IllegalArgumentException {
+        return new FilteredDataFrame((DoubleDataFrame) this.base.project(retainColumns), this.selected);
+    }
+
+    /**
+     * Filters this view further, without copying any values.
+     *
+     * @param rowFilter a predicate that can indicate whether a row should be maintained
+     * @return a filtered view with the selected rows that are accepted by the predicate
+     */
+
+    @Override
+    public FilteredDataFrame select(Predicate<DataVector<Double>> rowFilter) {
+        return filter(rowFilter);
+    }
+
+    /**
+     * Filters this view further. The predicate is only evaluated on the selected rows, and its result is ANDed with the
+     * current bitmap.
+     *
+     * @param rowFilter a predicate that can indicate whether a row should be maintained
+     * @return a filtered view with the selected rows that are accepted by the predicate
+     */
+
+    public FilteredDataFrame filter(Predicate<DataVector<Double>> rowFilter) {
+        BitSet accepted = evaluate(this.base, rowFilter, this.selected);
+        accepted.and(this.selected);
+        return new FilteredDataFrame(this.base, accepted);
+    }
+
+    /**
+     * Combines two filtered views on the same base DataFrame into a view on the rows that are selected by both.
+     *
+     * @param other another filtered view on the same base DataFrame
+     * @return a filtered view with the rows selected by both views
+     * @throws IllegalArgumentException if the other view has another base DataFrame
+     */
+
+    public FilteredDataFrame and(FilteredDataFrame other) throws IllegalArgumentException {
+        if (other.base != this.base) {
+            throw new IllegalArgumentException("Filtered views have different base dataframes");
+        }
+        BitSet both = (BitSet) this.selected.clone();
+        both.and(other.selected);
+        return new FilteredDataFrame(this.base, both);
+    }
+
+    /**
+     * Applies function to every selected row and adds the results as a new column to a DataFrame with only the
+     * selected rows, which gathers the selected rows of the other columns. A null result marks the row as missing.
+     *
+     * @param columnName the name of the new column
+     * @param function   the function to apply to each row
+     * @return a new DataFrame with the selected rows and the computed column added to it
+     * @throws IllegalArgumentException if a column with this name exists
+     */
+
+    @Override
+    public DoubleDataFrame computeColumn(String columnName, Function<DataVector<Double>, Double> function) throws IllegalArgumentException {
+        if (this.base.findColumn(columnName) >= 0) {
+            throw new IllegalArgumentException("Dataframe already contains this column name");
+        }
+
+        int[] rows = selectedRows();
+        double[] computed = new double[this.rowCount];
+        BitSet missing = new BitSet();
+        ParallelTools.RangeAction compute = (from, to) -> {
+            BitSet rangeMissing = new BitSet();
+            for (int k = from; k < to; k++) {
+                Double value = function.apply(new DoubleRowVector(this.base, rows[k], k));
+                computed[k] = value == null ? Double.NaN : value;
+                if (value == null) {
+                    rangeMissing.set(k);
+                }
+            }
+            if (!rangeMissing.isEmpty()) {
+                synchronized (missing) {
+                    missing.or(rangeMissing);
+                }
+            }
+        };
+        if (this.base.isParallel()) {
+            ParallelTools.forEachChunk(this.rowCount, compute);
+        }
+        else {
+            compute.apply(0, this.rowCount);
+        }
+
+        int[] gathered = this.rowCount == this.base.getRowCount() ? null : rows;
+        return this.base.derive(this.base.allColumnIndices(), gathered, this.rowCount, Collections.singletonList(columnName),
+                new double[][] { computed }, new BitSet[] { missing });
+    }
+
+    /**
+     * Creates a row DataVector which summarizes the values of the selected rows according to the given BinaryOperator.
+     * The reduction starts with the first selected value of each column and skips missing values; if a column has no
+     * selected values the summary is null.
+     *
+     * @param name            the name of the resulting data vector
+     * @param summaryFunction the binary operator that should be used to reduce the values in each column
+     * @return a DataVector which summarizes the values of the selected rows
+     */
+
+    @Override
+    public DataVector<Double> summarize(String name, BinaryOperator<Double> summaryFunction) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (int j = 0; j < getColumnCount(); j++) {
+            Double result = null;
+            for (int i = this.selected.nextSetBit(0); i >= 0; i = this.selected.nextSetBit(i + 1)) {
+                if (this.base.isValid(i, j)) {
+                    double value = this.base.valueAt(i, j);
+                    result = result == null ? value : summaryFunction.apply(result, value);
+                }
+            }
+            values.put(getColumnNames().get(j), result);
+        }
+        return summary(name, values);
+    }
+
+    /**
+     * Creates a row DataVector which summarizes the values of the selected rows according to the given primitive
+     * operator. As with DoubleDataFrame.summarizeDouble, the selected rows are split into chunks that are reduced in parallel
+     * and combined in order, so the operator should be associative. Missing values are skipped; if a column has no
+     * selected values the summary is null.
+     *
+     * @param name            the name of the resulting data vector
+     * @param summaryFunction the associative operator that should be used to reduce the values in each column
+     * @return a DataVector which summarizes the values of the selected rows
+     */
+
+    public DataVector<Double> summarizeDouble(String name, DoubleBinaryOperator summaryFunction) {
+
+        int[] rows = selectedRows();
+        int columns = getColumnCount();
+        int chunks = ParallelTools.chunkCount(rows.length, SUMMARY_CHUNK_SIZE);
+        double[][] partials = new double[columns][chunks];
+        boolean[][] present = new boolean[columns][chunks];
+        if (rows.length > 0) {
+            ParallelTools.forEachChunk(columns * chunks, 1, (from, to) -> {
+                for (int task = from; task < to; task++) {
+                    int j = task / chunks;
+                    int chunk = task % chunks;
+                    int start = chunk * SUMMARY_CHUNK_SIZE;
+                    int end = Math.min(rows.length, start + SUMMARY_CHUNK_SIZE);
+                    for (int k = start; k < end; k++) {
+                        if (!this.base.isValid(rows[k], j)) {
+                            continue;
+                        }
+                        double value = this.base.valueAt(rows[k], j);
+                        partials[j][chunk] = present[j][chunk] ? summaryFunction.applyAsDouble(partials[j][chunk], value) : value;
+                        present[j][chunk] = true;
+                    }
+                }
+            });
+        }
+
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (int j = 0; j < columns; j++) {
+            Double result = null;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                if (present[j][chunk]) {
+                    result = result == null ? partials[j][chunk] : summaryFunction.applyAsDouble(result, partials[j][chunk]);
+                }
+            }
+            values.put(getColumnNames().get(j), result);
+        }
+        return summary(name, values);
+    }
+
+    /**
+     * @return a Statistics object that reads the selected rows of this view
+     */
+
+    @Override
+    public DataFrameStatistics statistics() {
+        return new Statistic(this);
+    }
+
+    /**
+     * @return a lazy query plan that reads from the gathered selected rows
+     */
+
+    @Override
+    public LazyDataFrame lazy() {
+        return toDataFrame().lazy();
+    }
+
+    /**
+     * @param columns the names of the columns to sort by
+     * @return a new DataFrame with the selected rows sorted by the given columns
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    @Override
+    public DoubleDataFrame sortBy(String... columns) throws IllegalArgumentException {
+        return toDataFrame().sortBy(columns);
+    }
+
+    /**
+     * @param column     the name of the column to sort by
+     * @param descending whether the rows should be sorted in descending order
+     * @return a new DataFrame with the selected rows sorted by the given column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    @Override
+    public DoubleDataFrame sortBy(String column, boolean descending) throws IllegalArgumentException {
+        return toDataFrame().sortBy(column, descending);
+    }
+
+    /**
+     * Gathers the selected rows into a DataFrame of their own. If every row is selected, the columns are shared with
+     * the base DataFrame instead.
+     *
+     * @return a DataFrame with the selected rows
+     */
+
+    public DoubleDataFrame toDataFrame() {
+        int[] rows = this.rowCount == this.base.getRowCount() ? null : selectedRows();
+        return this.base.derive(this.base.allColumnIndices(), rows, this.rowCount, Collections.emptyList(), new double[0][]);
+    }
+
+    /**
+     * Gives the indices of the selected rows in the base DataFrame, which are collected from the bitmap when they are
+     * first needed.
+     *
+     * @return the indices of the selected rows in ascending order
+     */
+
+    private int[] selectedRows() {
+        if (this.rows == null) {
+            int[] collected = new int[this.rowCount];
+            int k = 0;
+            for (int i = this.selected.nextSetBit(0); i >= 0; i = this.selected.nextSetBit(i + 1)) {
+                collected[k] = i;
+                k++;
+            }
+            this.rows = collected;
+        }
+        return this.rows;
+    }
+
+    /**
+     * @param rowIndex the position of a row among the selected rows
+     * @return the index of the row in the base DataFrame
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     */
+
+    private int baseRow(int rowIndex) throws IndexOutOfBoundsException {
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return selectedRows()[rowIndex];
+    }
+
+    /**
+     * @param colName the name of a column
+     * @return the position of the column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    private int columnOf(String colName) throws IllegalArgumentException {
+        int colIndex = this.base.findColumn(colName);
+        if (colIndex < 0) {
+            throw new IllegalArgumentException("Non existing column provided");
+        }
+        return colIndex;
+    }
+
+    /**
+     * @param name the name of the summary
+     * @param values the summary of every column
+     * @return a row DataVector with the summary
+     */
+
+    private static DataVector<Double> summary(String name, Map<String, Double> values) {
+        DoubleDataVector summary = new DoubleDataVector();
+        summary.setIsRow(true);
+        summary.setRow(values.size());
+        summary.setName(name);
+        summary.setVector(values);
+        return summary;
+    }
+}
@@ -0,0 +1,341 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * This class provides the groups of a DoubleDataFrame by the values of a key column. Grouping assigns every row to the
+ * group of its key once, after which any number of aggregations can be computed, each in a single pass over the rows.
+ *
+ * The keys are hashed in parallel: every chunk of rows is grouped in its own DoubleIntHashMap, after which the local
+ * groups are merged into the global groups in the order of the chunks. The aggregations are computed in the same way,
+ * with a partial result per chunk that is combined in the order of the chunks. The groups are therefore always in the
+ * order in which their keys first appear in the key column, regardless of how the work was split.
+ *
+ * All NaN and missing keys form a single group, and negative and positive zero are the same key. The result of every
+ * aggregation is a DoubleDataFrame with the key column first, followed by one column per aggregated column. Missing
+ * values are skipped by every aggregation, and the aggregate of a group without any present value is missing.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class GroupedDataFrame {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    private final DoubleDataFrame frame;
+    private final int keyColumn;
+    private final int[] groupOf;
+    private final double[] keys;
+    private final int[] counts;
+
+    /**
+     * Groups the rows of a DataFrame by the values of a column. Groups are obtained via DoubleDataFrame.groupBy.
+     *
+     * @param frame the DataFrame to group
+     * @param keyColumn the position of the key column
+     */
+
+    GroupedDataFrame(DoubleDataFrame frame, int keyColumn) {
+        this.frame = frame;
+        this.keyColumn = keyColumn;
+        int rowCount = frame.getRowCount();
+        this.groupOf = new int[rowCount];
+
+        // Groups every chunk of rows in a local map, storing the local group of every row.
+
+        int chunks = chunkCount(rowCount, 0);
+        int chunkSize = chunkSize(rowCount, chunks);
+        DoubleIntHashMap[] local = new DoubleIntHashMap[chunks];
+        ParallelTools.forEachChunk(chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                int start = c * chunkSize;
+                int end = Math.min(rowCount, start + chunkSize);
+                DoubleIntHashMap map = new DoubleIntHashMap(1024);
+                for (int i = start; i < end; i++) {
+                    this.groupOf[i] = map.getOrAdd(frame.valueAt(i, keyColumn));
+                }
+                local[c] = map;
+            }
+        });
+
+        // Merges the local groups into the global groups in the order of the chunks, then translates the local group
+        // of every row to its global group.
+
+        DoubleIntHashMap global = new DoubleIntHashMap(local[0].size());
+        int[][] translation = new int[chunks][];
+        for (int c = 0; c < chunks; c++) {
+            translation[c] = new int[local[c].size()];
+            for (int g = 0; g < translation[c].length; g++) {
+                translation[c][g] = global.getOrAdd(local[c].keyAt(g));
+            }
+        }
+        ParallelTools.forEachChunk(chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                int start = c * chunkSize;
+                int end = Math.min(rowCount, start + chunkSize);
+                for (int i = start; i < end; i++) {
+                    this.groupOf[i] = translation[c][this.groupOf[i]];
+                }
+            }
+        });
+
+        this.keys = new double[global.size()];
+        for (int g = 0; g < this.keys.length; g++) {
+            this.keys[g] = global.keyAt(g);
+        }
+        this.counts = new int[this.keys.length];
+        for (int i = 0; i < rowCount; i++) {
+            this.counts[this.groupOf[i]]++;
+        }
+    }
+
+    /**
+     * @return the number of groups
+     */
+
+    public int getGroupCount() {
+        return this.keys.length;
+    }
+
+    /**
+     * @return a DataFrame with the key of every group and the number of present values of every other column over the
+     *         rows of the group
+     */
+
+    public DoubleDataFrame count() {
+        int[][] present = presentCounts();
+        double[][] values = new double[present.length][this.keys.length];
+        for (int j = 0; j < values.length; j++) {
+            for (int g = 0; g < this.keys.length; g++) {
+                values[j][g] = present[j][g];
+            }
+        }
+        return result(valueColumnNames(), values, new BitSet[values.length]);
+    }
+
+    /**
+     * @return a DataFrame with the key of every group and the sum of every other column over the rows of the group
+     */
+
+    public DoubleDataFrame sum() {
+        return aggregate(Double::sum);
+    }
+
+    /**
+     * @return a DataFrame with the key of every group and the mean of the present values of every other column over the
+     *         rows of the group
+     */
+
+    public DoubleDataFrame mean() {
+        DoubleDataFrame sums = sum();
+        int[][] present = presentCounts();
+        List<String> names = valueColumnNames();
+        double[][] values = new double[names.size()][this.keys.length];
+        BitSet[] missing = new BitSet[values.length];
+        for (int j = 0; j < values.length; j++) {
+            sums.copyColumn(j + 1, values[j], 0);
+            missing[j] = new BitSet();
+            for (int g = 0; g < this.keys.length; g++) {
+                values[j][g] /= present[j][g];
+                if (present[j][g] == 0) {
+                    missing[j].set(g);
+                }
+            }
+        }
+        return result(names, values, missing);
+    }
+
+    /**
+     * @return a DataFrame with the key of every group and the minimum of every other column over the rows of the group
+     */
+
+    public DoubleDataFrame min() {
+        return aggregate(Math::min);
+    }
+
+    /**
+     * @return a DataFrame with the key of every group and the maximum of every other column over the rows of the group
+     */
+
+    public DoubleDataFrame max() {
+        return aggregate(Math::max);
+    }
+
+    /**
+     * Reduces the present values of every other column over the rows of every group with a primitive operator, starting
+     * from the first present value of the group. Every chunk of rows is reduced into a partial result per group, after which the partial
+     * results are combined in the order of the chunks. As with DoubleDataFrame.summarizeDouble, the operator should be
+     * associative.
+     *
+     * @param operator the associative operator that combines two values
+     * @return a DataFrame with the key of every group and the reduced value of every other column
+     */
+
+    public DoubleDataFrame aggregate(DoubleBinaryOperator operator) {
+
+        List<String> names = valueColumnNames();
+        int[] columns = valueColumnIndices();
+        int groups = this.keys.length;
+        int rowCount = this.groupOf.length;
+
+        // Reduces every chunk of every column into a partial result per group. The number of chunks is limited so the
+        // partial results never take more memory than a quarter of the rows.
+
+        int chunks = chunkCount(rowCount, groups);
+        int chunkSize = chunkSize(rowCount, chunks);
+        double[][][] partials = new double[columns.length][chunks][];
+        boolean[][][] seen = new boolean[columns.length][chunks][];
+        ParallelTools.forEachChunk(columns.length * chunks, 1, (from, to) -> {
+            for (int task = from; task < to; task++) {
+                int j = task / chunks;
+                int c = task % chunks;
+                double[] partial = new double[groups];
+                boolean[] started = new boolean[groups];
+                int end = Math.min(rowCount, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; i++) {
+                    if (!this.frame.isValid(i, columns[j])) {
+                        continue;
+                    }
+                    int g = this.groupOf[i];
+                    double value = this.frame.valueAt(i, columns[j]);
+                    if (started[g]) {
+                        partial[g] = operator.applyAsDouble(partial[g], value);
+                    }
+                    else {
+                        partial[g] = value;
+                        started[g] = true;
+                    }
+                }
+                partials[j][c] = partial;
+                seen[j][c] = started;
+            }
+        });
+
+        // Combines the partial results of the chunks in which a group has present values. A group without any present
+        // value is missing.
+
+        double[][] values = new double[columns.length][groups];
+        BitSet[] missing = new BitSet[columns.length];
+        for (int j = 0; j < columns.length; j++) {
+            boolean[] started = new boolean[groups];
+            for (int c = 0; c < chunks; c++) {
+                for (int g = 0; g < groups; g++) {
+                    if (!seen[j][c][g]) {
+                        continue;
+                    }
+                    if (started[g]) {
+                        values[j][g] = operator.applyAsDouble(values[j][g], partials[j][c][g]);
+                    }
+                    else {
+                        values[j][g] = partials[j][c][g];
+                        started[g] = true;
+                    }
+                }
+            }
+            missing[j] = new BitSet();
+            for (int g = 0; g < groups; g++) {
+                if (!started[g]) {
+                    values[j][g] = Double.NaN;
+                    missing[j].set(g);
+                }
+            }
+        }
+        return result(names, values, missing);
+    }
+
+    /**
+     * Counts the present values of every other column per group, by subtracting the missing values of the column from
+     * the number of rows of every group.
+     *
+     * @return for every column except the key column, the number of present values of every group
+     */
+
+    private int[][] presentCounts() {
+        int[] columns = valueColumnIndices();
+        int rowCount = this.groupOf.length;
+        int[][] present = new int[columns.length][];
+        for (int j = 0; j < columns.length; j++) {
+            present[j] = this.counts.clone();
+            for (int i = this.frame.nextMissing(columns[j], 0); i < rowCount; i = this.frame.nextMissing(columns[j], i + 1)) {
+                present[j][this.groupOf[i]]--;
+            }
+        }
+        return present;
+    }
+
+    /**
+     * Creates a DataFrame with the key of every group followed by the given columns.
+     *
+     * @param names the names of the columns after the key column
+     * @param values the values of the columns after the key column, one value per group
+     * @param missing for every column after the key column the groups whose value is missing, or null if none is
+     * @return the DataFrame with one row per group
+     */
+
+    private DoubleDataFrame result(List<String> names, double[][] values, BitSet[] missing) {
+        List<String> allNames = new ArrayList<>();
+        allNames.add(this.frame.getColumnNames().get(this.keyColumn));
+        allNames.addAll(names);
+        double[][] columns = new double[values.length + 1][];
+        columns[0] = Arrays.copyOf(this.keys, this.keys.length);
+        System.arraycopy(values, 0, columns, 1, values.length);
+        BitSet[] allMissing = new BitSet[columns.length];
+        System.arraycopy(missing, 0, allMissing, 1, missing.length);
+        return this.frame.derive(new int[0], null, this.keys.length, allNames, columns, allMissing);
+    }
+
+    /**
+     * @return the names of all columns except the key column, in order
+     */
+
+    private List<String> valueColumnNames() {
+        List<String> names = new ArrayList<>(this.frame.getColumnNames());
+        names.remove(this.keyColumn);
+        return names;
+    }
+
+    /**
+     * @return the positions of all columns except the key column, in order
+     */
+
+    private int[] valueColumnIndices() {
+        int[] columns = new int[this.frame.getColumnCount() - 1];
+        for (int j = 0, k = 0; j < this.frame.getColumnCount(); j++) {
+            if (j != this.keyColumn) {
+                columns[k] = j;
+                k++;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Decides into how many chunks the rows are split: at least MIN_CHUNK_SIZE rows per chunk, no more chunks than there
+     * are threads, and few enough chunks that a partial result per group per chunk takes at most a quarter of the rows.
+     *
+     * @param rowCount the number of rows
+     * @param groups the number of groups a partial result holds, or 0 if not known yet
+     * @return the number of chunks, at least 1
+     */
+
+    private static int chunkCount(int rowCount, int groups) {
+        long chunks = Math.min(ForkJoinPool.getCommonPoolParallelism(), rowCount / MIN_CHUNK_SIZE);
+        if (groups > 0) {
+            chunks = Math.min(chunks, rowCount / (4L * groups));
+        }
+        return (int) Math.max(1, chunks);
+    }
+
+    /**
+     * @param rowCount the number of rows
+     * @param chunks the number of chunks
+     * @return the number of rows in every chunk except the last
+     */
+
+    private static int chunkSize(int rowCount, int chunks) {
+        return Math.max(1, (int) (((long) rowCount + chunks - 1) / chunks));
+    }
+}
@@ -0,0 +1,252 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Provides the hash join of two DoubleDataFrames on a key column of each. A hash table is built on the keys of the
+ * smaller DataFrame, after which the rows of the larger DataFrame are probed against it in parallel chunks.
+ *
+ * Every pair of rows with equal keys becomes a row of the result. The rows of the result are ordered by the row of the
+ * left DataFrame and then by the row of the right DataFrame, followed by the unmatched rows of the right DataFrame for
+ * an outer join. NaN and missing keys never match. The result has all columns of the left DataFrame followed by all
+ * columns of the right DataFrame except its key column. A right column whose name is already used gets the suffix
+ * "_right". Missing values stay missing, and the values of unmatched rows are missing, except for the key column, which
+ * holds the key of whichever row is present.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+final class HashJoin {
+
+    private static final int PROBE_CHUNK_SIZE = 1 << 14;
+    private static final int NONE = -1;
+
+    private HashJoin() {
+    }
+
+    /**
+     * Joins two DataFrames.
+     *
+     * @param left the left DataFrame
+     * @param right the right DataFrame
+     * @param leftKey the position of the key column of the left DataFrame
+     * @param rightKey the position of the key column of the right DataFrame
+     * @param type the kind of join
+     * @return a new DataFrame with the joined rows
+     * @throws IllegalArgumentException if the result has more rows than a DataFrame can hold
+     */
+
+    static DoubleDataFrame join(DoubleDataFrame left, DoubleDataFrame right, int leftKey, int rightKey, JoinType type)
+            throws IllegalArgumentException {
+
+        // Builds the hash table on the smaller side and probes it with the larger side.
+
+        boolean buildLeft = left.getRowCount() < right.getRowCount();
+        DoubleDataFrame build = buildLeft ? left : right;
+        DoubleDataFrame probe = buildLeft ? right : left;
+        int buildKey = buildLeft ? leftKey : rightKey;
+        int probeKey = buildLeft ? rightKey : leftKey;
+
+        // Chains the rows of every build key in ascending order: head holds the first row of a key, next the following
+        // row of the same key.
+
+        DoubleIntHashMap table = new DoubleIntHashMap(1024);
+        int[] next = new int[build.getRowCount()];
+        int[] head = new int[16];
+        for (int i = build.getRowCount() - 1; i >= 0; i--) {
+            double key = build.valueAt(i, buildKey);
+            if (Double.isNaN(key) || !build.isValid(i, buildKey)) {
+                continue;
+            }
+            int keys = table.size();
+            int id = table.getOrAdd(key);
+            if (id == keys) {
+                if (id == head.length) {
+                    head = Arrays.copyOf(head, 2 * id);
+                }
+                next[i] = NONE;
+            }
+            else {
+                next[i] = head[id];
+            }
+            head[id] = i;
+        }
+
+        // Probes every chunk of rows twice: first to look up the keys and count the pairs of the chunk, then, after
+        // the offsets of the chunks are known, to write the pairs.
+
+        int probeCount = probe.getRowCount();
+        int chunks = ParallelTools.chunkCount(probeCount, PROBE_CHUNK_SIZE);
+        int[] probeIds = new int[probeCount];
+        long[] chunkPairs = new long[chunks];
+        int[] chainHead = head;
+        ParallelTools.forEachChunk(chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                long pairs = 0;
+                int end = Math.min(probeCount, (c + 1) * PROBE_CHUNK_SIZE);
+                for (int i = c * PROBE_CHUNK_SIZE; i < end; i++) {
+                    double key = probe.valueAt(i, probeKey);
+                    int id = Double.isNaN(key) || !probe.isValid(i, probeKey) ? NONE : table.get(key);
+                    probeIds[i] = id;
+                    for (int row = id == NONE ? NONE : chainHead[id]; row != NONE; row = next[row]) {
+                        pairs++;
+                    }
+                }
+                chunkPairs[c] = pairs;
+            }
+        });
+
+        long total = 0;
+        long[] chunkOffsets = new long[chunks];
+        for (int c = 0; c < chunks; c++) {
+            chunkOffsets[c] = total;
+            total += chunkPairs[c];
+        }
+        checkSize(total);
+
+        int[] pairProbe = new int[(int) total];
+        int[] pairBuild = new int[(int) total];
+        ParallelTools.forEachChunk(chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                int position = (int) chunkOffsets[c];
+                int end = Math.min(probeCount, (c + 1) * PROBE_CHUNK_SIZE);
+                for (int i = c * PROBE_CHUNK_SIZE; i < end; i++) {
+                    int id = probeIds[i];
+                    for (int row = id == NONE ? NONE : chainHead[id]; row != NONE; row = next[row]) {
+                        pairProbe[position] = i;
+                        pairBuild[position] = row;
+                        position++;
+                    }
+                }
+            }
+        });
+
+        int[] pairLeft = buildLeft ? pairBuild : pairProbe;
+        int[] pairRight = buildLeft ? pairProbe : pairBuild;
+        boolean[] leftMatched = new boolean[left.getRowCount()];
+        boolean[] rightMatched = new boolean[right.getRowCount()];
+        for (int p = 0; p < pairLeft.length; p++) {
+            leftMatched[pairLeft[p]] = true;
+            rightMatched[pairRight[p]] = true;
+        }
+
+        // Orders the pairs by left row with a stable counting sort, which keeps the right rows of every left row in
+        // ascending order, and adds the unmatched rows that the join type keeps.
+
+        boolean keepLeft = type != JoinType.INNER;
+        boolean keepRight = type == JoinType.OUTER;
+        long rowCount = pairLeft.length;
+        for (int i = 0; keepLeft && i < left.getRowCount(); i++) {
+            if (!leftMatched[i]) {
+                rowCount++;
+            }
+        }
+        for (int i = 0; keepRight && i < right.getRowCount(); i++) {
+            if (!rightMatched[i]) {
+                rowCount++;
+            }
+        }
+        checkSize(rowCount);
+
+        int[] offsets = new int[left.getRowCount() + 1];
+        for (int p = 0; p < pairLeft.length; p++) {
+            offsets[pairLeft[p] + 1]++;
+        }
+        for (int i = 0; i < left.getRowCount(); i++) {
+            offsets[i + 1] += offsets[i] + (keepLeft && !leftMatched[i] ? 1 : 0);
+        }
+        int unmatchedRight = offsets[left.getRowCount()];
+
+        int[] leftRows = new int[(int) rowCount];
+        int[] rightRows = new int[(int) rowCount];
+        for (int p = 0; p < pairLeft.length; p++) {
+            int position = offsets[pairLeft[p]]++;
+            leftRows[position] = pairLeft[p];
+            rightRows[position] = pairRight[p];
+        }
+        for (int i = 0; i < left.getRowCount(); i++) {
+            if (keepLeft && !leftMatched[i]) {
+                int position = offsets[i]++;
+                leftRows[position] = i;
+                rightRows[position] = NONE;
+            }
+        }
+        for (int i = 0; keepRight && i < right.getRowCount(); i++) {
+            if (!rightMatched[i]) {
+                leftRows[unmatchedRight] = NONE;
+                rightRows[unmatchedRight] = i;
+                unmatchedRight++;
+            }
+        }
+
+        // Gathers the columns of both sides, marking the values of missing rows as missing.
+
+        int count = (int) rowCount;
+        List<String> names = new ArrayList<>(left.getColumnNames());
+        List<double[]> values = new ArrayList<>();
+        List<BitSet> missing = new ArrayList<>();
+        for (int j = 0; j < left.getColumnCount(); j++) {
+            missing.add(new BitSet());
+            values.add(gather(left, j, leftRows, count, missing.get(j)));
+        }
+        double[] keys = values.get(leftKey);
+        BitSet keysMissing = missing.get(leftKey);
+        for (int k = 0; k < count; k++) {
+            if (leftRows[k] == NONE) {
+                keys[k] = right.valueAt(rightRows[k], rightKey);
+                keysMissing.set(k, !right.isValid(rightRows[k], rightKey));
+            }
+        }
+        for (int j = 0; j < right.getColumnCount(); j++) {
+            if (j == rightKey) {
+                continue;
+            }
+            String name = right.getColumnNames().get(j);
+            while (names.contains(name)) {
+                name = name + "_right";
+            }
+            names.add(name);
+            missing.add(new BitSet());
+            values.add(gather(right, j, rightRows, count, missing.get(missing.size() - 1)));
+        }
+
+        return left.derive(new int[0], null, count, names, values.toArray(new double[0][]), missing.toArray(new BitSet[0]));
+    }
+
+    /**
+     * Gathers the values of a column at the given rows, together with the positions of the missing values.
+     *
+     * @param frame the DataFrame to read from
+     * @param colIndex the position of the column
+     * @param rows the rows to read, or -1 for a missing row
+     * @param count the number of rows
+     * @param missing the set in which the positions of missing rows and missing values are recorded
+     * @return the gathered values, NaN for every missing row
+     */
+
+    private static double[] gather(DoubleDataFrame frame, int colIndex, int[] rows, int count, BitSet missing) {
+        double[] values = new double[count];
+        for (int k = 0; k < count; k++) {
+            if (rows[k] == NONE || !frame.isValid(rows[k], colIndex)) {
+                values[k] = Double.NaN;
+                missing.set(k);
+            }
+            else {
+                values[k] = frame.valueAt(rows[k], colIndex);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param rowCount the number of rows of a result
+     * @throws IllegalArgumentException if a DataFrame cannot hold that many rows
+     */
+
+    private static void checkSize(long rowCount) throws IllegalArgumentException {
+        if (rowCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Join result has more rows than a DataFrame can hold");
+        }
+    }
+}
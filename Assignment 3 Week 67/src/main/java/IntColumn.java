@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+/**
+ * This class provides a column of 32-bit integers, stored in an array of primitive ints on the heap. A value takes four
+ * bytes, half of what it takes in a column of doubles.
+ *
+ * The validity bitmap is only allocated once a value goes missing, so a column without missing values carries no
+ * bitmap. A missing value is stored as 0.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class IntColumn implements Column {
+
+    private final int[] values;
+    private long[] validity;
+
+    /**
+     * Constructs a column on top of an array. The array is not copied.
+     *
+     * @param values the values of the column
+     */
+
+    public IntColumn(int[] values) {
+        this(values, null);
+    }
+
+    /**
+     * Constructs a column of the given length in which every value is 0.
+     *
+     * @param length the number of values
+     */
+
+    public IntColumn(int length) {
+        this(new int[length], null);
+    }
+
+    /**
+     * Constructs a column on top of an array and a validity bitmap. Neither is copied.
+     *
+     * @param values the values of the column
+     * @param validity the bitmap in which bit i is set if the value at row i is present, or null if every value is
+     *                 present
+     */
+
+    private IntColumn(int[] values, long[] validity) {
+        this.values = values;
+        this.validity = validity;
+    }
+
+    /**
+     * @param row the row index of the value
+     * @return the value stored at the row, which is 0 if the value is missing
+     */
+
+    public int getInt(int row) {
+        return this.values[row];
+    }
+
+    /**
+     * Sets the value stored at a row, which makes the value present.
+     *
+     * @param row the row index of the value
+     * @param value the new value
+     */
+
+    public void setInt(int row, int value) {
+        this.values[row] = value;
+        if (this.validity != null) {
+            Bitmaps.set(this.validity, row, true);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.INT;
+    }
+
+    @Override
+    public boolean isValid(int row) {
+        return this.validity == null || Bitmaps.get(this.validity, row);
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return isValid(row) ? this.values[row] : null;
+    }
+
+    @Override
+    public void setObject(int row, Object value) throws ClassCastException {
+        setInt(row, (Integer) value);
+    }
+
+    @Override
+    public void setMissing(int row) {
+        if (this.validity == null) {
+            this.validity = Bitmaps.allSet(this.values.length);
+        }
+        this.values[row] = 0;
+        Bitmaps.set(this.validity, row, false);
+    }
+
+    @Override
+    public double getAsDouble(int row) {
+        return isValid(row) ? this.values[row] : Double.NaN;
+    }
+
+    @Override
+    public IntColumn copy(int length) {
+        long[] copied = this.validity == null ? null : Bitmaps.copy(this.validity, this.values.length, length, true);
+        return new IntColumn(Arrays.copyOf(this.values, length), copied);
+    }
+
+    @Override
+    public IntColumn gather(int[] rows, int count) {
+        int[] gathered = new int[count];
+        for (int i = 0; i < count; i++) {
+            gathered[i] = this.values[rows[i]];
+        }
+        return new IntColumn(gathered, this.validity == null ? null : Bitmaps.gather(this.validity, rows, count));
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * The kinds of join between two DataFrames.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public enum JoinType {
+
+    /**
+     * Keeps only the pairs of rows whose keys match.
+     */
+
+    INNER,
+
+    /**
+     * Keeps the pairs of rows whose keys match, and every row of the left DataFrame without a match.
+     */
+
+    LEFT,
+
+    /**
+     * Keeps the pairs of rows whose keys match, and every row of either DataFrame without a match.
+     */
+
+    OUTER
+}
@@ -0,0 +1,346 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class provides a lazy query plan on a DoubleDataFrame. The operations select, project and computeColumn are
+ * recorded as steps of a plan instead of being executed immediately. When collect is called, all steps are executed in a
+ * single pass over the rows of the source DataFrame, so no intermediate DataFrames are created.
+ *
+ * Source columns are read directly from the source DataFrame and only the columns that remain after the last project
+ * are copied into the result. A computed column that is projected away before any select or computeColumn could read
+ * it is not computed at all.
+ *
+ * The DataVectors that are given to the predicates and functions of the plan are only valid during the call, since
+ * the same vector is moved from row to row.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class LazyDataFrame {
+
+    private static final int SELECT = 0;
+    private static final int PROJECT = 1;
+    private static final int COMPUTE = 2;
+
+    private final DoubleDataFrame source;
+    private final List<Step> steps;
+
+    // Maps every column that is visible after the recorded steps to its origin: the position of a source column if the
+    // value is non-negative, or -(k + 1) for the k-th computed column.
+
+    private Map<String, Integer> schema;
+    private int computedCount;
+
+    /**
+     * Constructs an empty plan on a DataFrame. Plans are obtained via DataFrame.lazy.
+     *
+     * @param source the DataFrame the plan reads from
+     */
+
+    LazyDataFrame(DoubleDataFrame source) {
+        this.source = source;
+        this.steps = new ArrayList<>();
+        this.schema = new LinkedHashMap<>();
+        this.computedCount = 0;
+
+        List<String> names = source.getColumnNames();
+        for (int j = 0; j < names.size(); j++) {
+            this.schema.put(names.get(j), j);
+        }
+    }
+
+    /**
+     * @return the names of the columns the result of this plan will have
+     */
+
+    public List<String> getColumnNames() {
+        return new ArrayList<>(this.schema.keySet());
+    }
+
+    /**
+     * Adds a step to the plan that only keeps the rows that are accepted by the predicate.
+     *
+     * @param rowFilter a predicate that can indicate whether a row should be maintained
+     * @return this plan
+     */
+
+    public LazyDataFrame select(Predicate<DataVector<Double>> rowFilter) {
+        Step step = new Step(SELECT, this.schema);
+        step.filter = rowFilter;
+        this.steps.add(step);
+        return this;
+    }
+
+    /**
+     * Adds a step to the plan that only keeps the given columns.
+     *
+     * @param retainColumns the names of column that should be retained
+     * @return this plan
+     * @throws IllegalArgumentException if one of the column names is not a column at this point of the plan
+     */
+
+    public LazyDataFrame project(Collection<String> retainColumns) throws IllegalArgumentException {
+
+        for (String column : retainColumns) {
+            if (!this.schema.containsKey(column)) {
+                throw new IllegalArgumentException("Dataframe does not contain this column: " + column);
+            }
+        }
+
+        // Keeps the retained columns in their current order, like DataFrame.project does.
+
+        Map<String, Integer> retained = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> column : this.schema.entrySet()) {
+            if (retainColumns.contains(column.getKey())) {
+                retained.put(column.getKey(), column.getValue());
+            }
+        }
+
+        this.steps.add(new Step(PROJECT, retained));
+        this.schema = retained;
+        return this;
+    }
+
+    /**
+     * Adds a step to the plan that only keeps the given columns.
+     *
+     * @param retainColumns the names of column that should be retained
+     * @return this plan
+     * @throws IllegalArgumentException if one of the column names is not a column at this point of the plan
+     */
+
+    public LazyDataFrame project(String... retainColumns) throws IllegalArgumentException {
+        return project(Arrays.asList(retainColumns));
+    }
+
+    /**
+     * Adds a step to the plan that computes a new column by applying a function to each row. A null result marks the
+     * row as missing, also for later steps that read the column.
+     *
+     * @param columnName the name of the new column
+     * @param function   the function to apply to each row
+     * @return this plan
+     * @throws IllegalArgumentException if a column with this name exists at this point of the plan
+     */
+
+    public LazyDataFrame computeColumn(String columnName, Function<DataVector<Double>, Double> function)
+            throws IllegalArgumentException {
+
+        if (this.schema.containsKey(columnName)) {
+            throw new IllegalArgumentException("Dataframe already contains this column name");
+        }
+
+        Step step = new Step(COMPUTE, this.schema);
+        step.function = function;
+        step.name = columnName;
+        step.slot = this.computedCount;
+        this.steps.add(step);
+
+        this.schema = new LinkedHashMap<>(this.schema);
+        this.schema.put(columnName, -(this.computedCount + 1));
+        this.computedCount++;
+        return this;
+    }
+
+    /**
+     * Executes the plan in a single pass over the rows of the source DataFrame.
+     *
+     * @return a new DataFrame with the result of the plan
+     */
+
+    public DataFrame<Double> collect() {
+
+        // Determines which computed columns are needed: those in the result, and those that a later select or
+        // computeColumn can still see.
+
+        boolean[] needed = new boolean[this.computedCount];
+        for (int k = 0; k < this.steps.size(); k++) {
+            Step step = this.steps.get(k);
+            if (step.kind != COMPUTE) {
+                continue;
+            }
+            Integer origin = -(step.slot + 1);
+            needed[step.slot] = origin.equals(this.schema.get(step.name));
+            for (int l = k + 1; l < this.steps.size() && !needed[step.slot]; l++) {
+                Step later = this.steps.get(l);
+                if (later.kind != PROJECT && origin.equals(later.visible.get(step.name))) {
+                    needed[step.slot] = true;
+                }
+            }
+        }
+
+        // Splits the result columns into source columns and computed columns.
+
+        List<Integer> sourceColumns = new ArrayList<>();
+        List<String> computedNames = new ArrayList<>();
+        List<Integer> computedSlots = new ArrayList<>();
+        for (Map.Entry<String, Integer> column : this.schema.entrySet()) {
+            if (column.getValue() >= 0) {
+                sourceColumns.add(column.getValue());
+            } else {
+                computedNames.add(column.getKey());
+                computedSlots.add(-column.getValue() - 1);
+            }
+        }
+
+        boolean selects = false;
+        for (Step step : this.steps) {
+            selects |= step.kind == SELECT;
+            step.position = -1;
+        }
+
+        // Runs all steps for each row. The computed values of the current row are kept in slots, with a bit for every
+        // slot whose value is missing, and accepted rows are appended to the result arrays, which grow by doubling if
+        // rows may be dropped.
+
+        int rowCount = this.source.getRowCount();
+        double[] slots = new double[this.computedCount];
+        BitSet slotsMissing = new BitSet(this.computedCount);
+        int capacity = selects ? Math.min(rowCount, 1024) : rowCount;
+        int[] rows = new int[capacity];
+        double[][] computed = new double[computedNames.size()][capacity];
+        BitSet[] missing = new BitSet[computed.length];
+        for (int c = 0; c < missing.length; c++) {
+            missing[c] = new BitSet();
+        }
+        int count = 0;
+
+        for (int i = 0; i < rowCount; i++) {
+            boolean accepted = true;
+            for (int k = 0; k < this.steps.size() && accepted; k++) {
+                Step step = this.steps.get(k);
+                if (step.kind == SELECT) {
+                    accepted = step.filter.test(step.moveTo(this.source, i, slots, slotsMissing));
+                } else if (step.kind == COMPUTE && needed[step.slot]) {
+                    Double value = step.function.apply(step.moveTo(this.source, i, slots, slotsMissing));
+                    slots[step.slot] = value == null ? Double.NaN : value;
+                    slotsMissing.set(step.slot, value == null);
+                }
+            }
+            if (!accepted) {
+                continue;
+            }
+
+            if (count == capacity) {
+                capacity = Math.min(rowCount, Math.max(2 * capacity, 16));
+                rows = Arrays.copyOf(rows, capacity);
+                for (int c = 0; c < computed.length; c++) {
+                    computed[c] = Arrays.copyOf(computed[c], capacity);
+                }
+            }
+            rows[count] = i;
+            for (int c = 0; c < computed.length; c++) {
+                computed[c][count] = slots[computedSlots.get(c)];
+                if (slotsMissing.get(computedSlots.get(c))) {
+                    missing[c].set(count);
+                }
+            }
+            count++;
+        }
+
+        // Shares the source columns if no row was dropped, otherwise gathers the accepted rows.
+
+        for (int c = 0; c < computed.length; c++) {
+            if (computed[c].length != count) {
+                computed[c] = Arrays.copyOf(computed[c], count);
+            }
+        }
+        int[] sourceIndices = new int[sourceColumns.size()];
+        for (int k = 0; k < sourceIndices.length; k++) {
+            sourceIndices[k] = sourceColumns.get(k);
+        }
+        return this.source.derive(sourceIndices, count == rowCount ? null : rows, count, computedNames, computed, missing);
+    }
+
+    /**
+     * A single recorded operation of the plan, together with the columns that are visible to it. Select and compute
+     * steps own a reusable row vector that is moved over the rows during execution.
+     */
+
+    private static final class Step implements DataVector<Double> {
+
+        private final int kind;
+        private final Map<String, Integer> visible;
+        private final List<String> names;
+        private Predicate<DataVector<Double>> filter;
+        private Function<DataVector<Double>, Double> function;
+        private String name;
+        private int slot;
+
+        private DoubleDataFrame frame;
+        private double[] slots;
+        private BitSet slotsMissing;
+        private int row;
+        private int position = -1;
+
+        private Step(int kind, Map<String, Integer> visible) {
+            this.kind = kind;
+            this.visible = visible;
+            this.names = Collections.unmodifiableList(new ArrayList<>(visible.keySet()));
+        }
+
+        private Step moveTo(DoubleDataFrame frame, int row, double[] slots, BitSet slotsMissing) {
+            this.frame = frame;
+            this.row = row;
+            this.slots = slots;
+            this.slotsMissing = slotsMissing;
+            this.position++;
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return "row_" + this.position;
+        }
+
+        @Override
+        public List<String> getEntryNames() {
+            return this.names;
+        }
+
+        @Override
+        public Double getValue(String entryName) {
+            Integer origin = this.visible.get(entryName);
+            if (origin == null) {
+                return null;
+            }
+            if (origin >= 0) {
+                return this.frame.valueOrNull(this.row, origin);
+            }
+            return this.slotsMissing.get(-origin - 1) ? null : this.slots[-origin - 1];
+        }
+
+        @Override
+        public List<Double> getValues() {
+            return new AbstractList<Double>() {
+                @Override
+                public Double get(int index) {
+                    return getValue(names.get(index));
+                }
+
+                @Override
+                public int size() {
+                    return names.size();
+                }
+            };
+        }
+
+        @Override
+        public Map<String, Double> asMap() {
+            Map<String, Double> map = new LinkedHashMap<>();
+            for (String entryName : this.names) {
+                map.put(entryName, getValue(entryName));
+            }
+            return map;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -41,6 +45,7 @@ public class MainTesting
 	{
 		dataFrameCore();
 		dataFrameCoreSpeed();
+		dataFrameHandleSpeed();
 		dataVectors();
 		testRestructure();
 		testAnalysis();
@@ -49,6 +54,17 @@ public class MainTesting
 		// Extension 2
 		testStatisticsPart1();
 		testStatisticsPart2();
+		// Performance extensions
+		testColumnStatistics();
+		testParseDouble();
+		testBufferSegments();
+		testMissingValues();
+		testEncodings();
+		testBuilder();
+		testScan();
+		testFileMissingValues();
+		testFillDefinedColumn();
+		testJoinFiltered();
 
 	}
 
@@ -89,6 +105,32 @@ public class MainTesting
 		System.out.println("Running time: " + time + "ms");
 	}
 
+	public static void dataFrameHandleSpeed()
+	{
+		int size = 10000;
+		double[][] data = new double[1][size];
+		List<String> header = new ArrayList<>(size);
+		for (int j = 0; j < size; j++)
+		{
+			data[0][j] = j;
+			header.add("x_" + j);
+		}
+		DoubleDataFrame df = new DoubleDataFrame(header, data);
+		List<ColumnHandle> handles = new ArrayList<>(size);
+		for (String colName : header)
+		{
+			handles.add(df.columnIndex(colName));
+		}
+		long time = System.currentTimeMillis();
+		for (ColumnHandle handle : handles)
+		{
+			df.getDouble(0, handle);
+			df.setDouble(0, handle, 0d);
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("Running time with handles: " + time + "ms");
+	}
+
 	public static void dataVectors()
 	{
 		DataFrame<Double> df = testDataFrame();
@@ -187,6 +229,234 @@ public class MainTesting
 		System.out.println(model);
 	}
 
+	public static void testColumnStatistics()
+	{
+		DoubleDataFrame df = (DoubleDataFrame) testDataFrame();
+		ColumnStatistics before = df.columnStatistics("revenue");
+		df.setValue(0, "revenue", 50000d);
+		df.setValue(2, "revenue", 0d);
+		df.setValue(1, "revenue", null);
+		System.out.println(matchesScan(df, "revenue"));
+		System.out.println(before.getSum() == 232878.63 && before.getVersion() == 0);
+		System.out.println(df.columnStatistics("revenue").getVersion() == 3);
+
+		DoubleDataFrame filled = df.fillNA("revenue", 1d);
+		System.out.println(matchesScan(filled, "revenue"));
+		System.out.println(df.columnStatistics("revenue").getN() == 3);
+
+		df.columnStatistics("costs");
+		df.setColumn("costs", new double[] { 4, 3, 2, 1 });
+		System.out.println(matchesScan(df, "costs"));
+	}
+
+	private static boolean matchesScan(DataFrame<Double> df, String column)
+	{
+		ColumnStatistics statistics = ((DoubleDataFrame) df).columnStatistics(column);
+		double sum = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		long n = 0;
+		for (Double value : df.getColumn(column).getValues())
+		{
+			if (value != null)
+			{
+				sum += value;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+				n++;
+			}
+		}
+		return statistics.getN() == n && Math.abs(statistics.getSum() - sum) <= 1e-9 * Math.abs(sum)
+				&& statistics.getMin() == min && statistics.getMax() == max;
+	}
+
+	public static void testParseDouble() throws IOException
+	{
+		String[] fields = { "1e3", "-0", "-0.0", "2.5E-3", "-1.5e+2", "12345678901234567890123",
+				"0.12345678901234567890123", "9007199254740993", "1e-320", "1.7976931348623157e308" };
+		StringBuilder csv = new StringBuilder("x\n");
+		for (String field : fields)
+		{
+			csv.append(field).append('\n');
+		}
+		DataFrame<Double> df = FileTools.readCSV(new StringReader(csv.toString()), ',', name -> true);
+		boolean exact = df.getRowCount() == fields.length;
+		for (int i = 0; exact && i < fields.length; i++)
+		{
+			exact = Double.doubleToRawLongBits(df.getValue(i, "x"))
+					== Double.doubleToRawLongBits(Double.parseDouble(fields[i]));
+		}
+		System.out.println(exact);
+	}
+
+	public static void testBufferSegments() throws IOException
+	{
+		// Maps a sparse file, so only the pages around the segment boundary are ever written.
+
+		File file = File.createTempFile("segments", ".bin");
+		file.deleteOnExit();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			long segmentBytes = 8L * BufferColumn.SEGMENT_SIZE;
+			DoubleBuffer[] segments = {
+					channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes).asDoubleBuffer(),
+					channel.map(FileChannel.MapMode.READ_WRITE, segmentBytes, 8 * 4).asDoubleBuffer() };
+			BufferColumn column = new BufferColumn(segments, BufferColumn.SEGMENT_SIZE + 4);
+			int boundary = BufferColumn.SEGMENT_SIZE;
+			double[] values = { 1, 2, 3, 4 };
+			column.copyFrom(boundary - 2, values, 0, values.length);
+			double[] read = new double[values.length];
+			column.copyTo(boundary - 2, read, 0, read.length);
+			System.out.println(Arrays.equals(values, read));
+			System.out.println(column.get(boundary - 1) == 2 && column.get(boundary) == 3);
+			System.out.println(column.reduce(boundary - 2, boundary + 2, Double::sum) == 10);
+		}
+	}
+
+	public static void testMissingValues()
+	{
+		DoubleDataFrame left = new DoubleDataFrame(Arrays.asList("key", "x"),
+				new double[][] { { 1, 10 }, { 2, 20 }, { 3, 30 }, { 1, 40 } });
+		left.setValue(1, "x", null);
+		left.setValue(2, "key", null);
+		DoubleDataFrame right = new DoubleDataFrame(Arrays.asList("key", "y"),
+				new double[][] { { 1, 100 }, { 2, 200 }, { 5, 500 } });
+		right.setValue(0, "y", null);
+
+		DoubleDataFrame joined = left.join(right, "key", "key", JoinType.OUTER);
+		System.out.println(joined.getRowCount() == 5);
+		System.out.println(joined.getValue(0, "y") == null && joined.getValue(1, "x") == null);
+		System.out.println(joined.getValue(2, "key") == null && joined.getValue(2, "y") == null);
+		System.out.println(joined.getValue(4, "key") == 5 && joined.getValue(4, "x") == null);
+
+		GroupedDataFrame groups = left.groupBy("key");
+		DoubleDataFrame sums = groups.sum();
+		DoubleDataFrame counts = groups.count();
+		DoubleDataFrame means = groups.mean();
+		System.out.println(sums.getValue(0, "x") == 50 && counts.getValue(0, "x") == 2 && means.getValue(0, "x") == 25);
+		System.out.println(sums.getValue(1, "x") == null && counts.getValue(1, "x") == 0 && means.getValue(1, "x") == null);
+
+		DataFrame<Double> computed = left.computeColumn("half", row -> row.getValue("x") == null ? null : row.getValue("x") / 2);
+		System.out.println(computed.getValue(1, "half") == null && computed.getValue(3, "half") == 20);
+	}
+
+	public static void testEncodings()
+	{
+		int rows = 1024;
+		double[][] data = new double[rows][3];
+		for (int i = 0; i < rows; i++)
+		{
+			data[i][0] = i < rows / 2 ? -0.0 : Double.NaN;
+			data[i][1] = 1_000_000_000L + i % 200;
+			data[i][2] = i % 3 == 0 ? Double.NaN : i % 3 == 1 ? 0.5 : -2.25;
+		}
+		DoubleDataFrame df = new DoubleDataFrame(Arrays.asList("runs", "reference", "dictionary"), data);
+		df.compact();
+		boolean exact = true;
+		for (int i = 0; i < rows; i++)
+		{
+			for (int j = 0; j < 3; j++)
+			{
+				exact &= Double.doubleToRawLongBits(df.getValue(i, df.getColumnNames().get(j)))
+						== Double.doubleToRawLongBits(data[i][j]);
+			}
+		}
+		System.out.println(exact);
+
+		df.setValue(0, "runs", 0d);
+		System.out.println(df.getValue(0, "runs") == 0 && Double.doubleToRawLongBits(df.getValue(1, "runs")) == Double.doubleToRawLongBits(-0.0));
+	}
+
+	public static void testBuilder()
+	{
+		DataFrameBuilder builder = new DataFrameBuilder(Arrays.asList("a", "b"), 1);
+		builder.addRow(1, 2).addRow(3, 4).addRow(5, 6);
+		DoubleDataFrame first = builder.build();
+		System.out.println(builder.getRowCount() == 0);
+		builder.addRow(7, 8);
+		DoubleDataFrame second = builder.build();
+		System.out.println(first.getRowCount() == 3 && first.getValue(0, "a") == 1 && first.getValue(2, "b") == 6);
+		System.out.println(second.getRowCount() == 1 && second.getValue(0, "a") == 7);
+	}
+
+	public static void testScan() throws IOException
+	{
+		int rows = 10000;
+		DataFrameBuilder builder = new DataFrameBuilder(Arrays.asList("x"));
+		for (int i = 0; i < rows; i++)
+		{
+			builder.addRow(i);
+		}
+		File file = File.createTempFile("scan", ".bin");
+		file.deleteOnExit();
+		FileTools.writeBinary(builder.build(), file);
+
+		DataFrame<Double> selected = DataFrame.scan(file, 1000).select(row -> row.getValue("x") % 1000 == 7).collect();
+		System.out.println(selected.getRowCount() == 10 && selected.getValue(9, "x") == 9007);
+		DataFrame<Double> all = DataFrame.scan(file, 1000).collect();
+		System.out.println(all.getRowCount() == rows && all.getValue(rows - 1, "x") == rows - 1);
+	}
+
+	public static void testFileMissingValues() throws IOException
+	{
+		double[][] data = new double[100][2];
+		for (int i = 0; i < data.length; i++)
+		{
+			data[i][0] = i;
+			data[i][1] = i / 2.0;
+		}
+		DoubleDataFrame df = new DoubleDataFrame(Arrays.asList("a", "b"), data);
+		df.setValue(3, "a", null);
+		df.setValue(70, "a", null);
+		df.setValue(5, "b", Double.NaN);
+
+		File csv = File.createTempFile("missing", ".csv");
+		csv.deleteOnExit();
+		FileTools.writeCSV(df, csv);
+		DoubleDataFrame fromCSV = FileTools.readCSV(csv);
+		System.out.println(fromCSV.isNA(3, "a") && fromCSV.isNA(70, "a") && !fromCSV.isNA(4, "a"));
+		System.out.println(!fromCSV.isNA(5, "b") && Double.isNaN(fromCSV.getValue(5, "b")));
+
+		File excel = File.createTempFile("missing", ".xlsx");
+		excel.deleteOnExit();
+		FileTools.writeExcel(df, excel);
+		DoubleDataFrame fromExcel = FileTools.readExcel(excel);
+		System.out.println(fromExcel.isNA(3, "a") && fromExcel.isNA(70, "a") && !fromExcel.isNA(4, "a"));
+		System.out.println(!fromExcel.isNA(5, "b") && Double.isNaN(fromExcel.getValue(5, "b")));
+
+		File binary = File.createTempFile("missing", ".bin");
+		binary.deleteOnExit();
+		FileTools.writeBinary(df, binary);
+		DoubleDataFrame fromBinary = FileTools.readBinary(binary);
+		System.out.println(fromBinary.isNA(3, "a") && fromBinary.isNA(70, "a") && !fromBinary.isNA(4, "a"));
+		System.out.println(!fromBinary.isNA(5, "b") && Double.isNaN(fromBinary.getValue(5, "b")));
+		DoubleDataFrame range = FileTools.readBinary(binary, 66, 10);
+		System.out.println(range.isNA(4, "a") && !range.isNA(3, "a") && range.getValue(3, "a") == 69);
+	}
+
+	public static void testFillDefinedColumn()
+	{
+		DoubleDataFrame df = new DoubleDataFrame(Arrays.asList("x"), new double[][] { { 1 }, { -2 }, { 3 } });
+		DoubleDataFrame defined = df.defineColumn("root", row -> row.getValue("x") < 0 ? null : Math.sqrt(row.getValue("x")));
+		DoubleDataFrame filled = defined.fillNA("root", 0);
+		System.out.println(defined.isNA(1, "root") && !filled.isNA(1, "root") && filled.getValue(1, "root") == 0);
+		System.out.println(filled.getValue(2, "root") == Math.sqrt(3) && defined.isNA(1, "root"));
+	}
+
+	public static void testJoinFiltered()
+	{
+		DoubleDataFrame left = new DoubleDataFrame(Arrays.asList("key", "x"),
+				new double[][] { { 1, 10 }, { 2, 20 }, { 3, 30 } });
+		DoubleDataFrame right = new DoubleDataFrame(Arrays.asList("key", "y"),
+				new double[][] { { 1, 100 }, { 2, 200 }, { 3, Double.NaN }, { 4, 400 } });
+		right.setValue(0, "y", null);
+		DataFrame<Double> filtered = right.filter(row -> row.getValue("key") != 4);
+
+		DoubleDataFrame joined = left.join(filtered, "key", "key", JoinType.INNER);
+		System.out.println(joined.getRowCount() == 3 && joined.isNA(0, "y") && joined.getValue(1, "y") == 200);
+		System.out.println(!joined.isNA(2, "y") && Double.isNaN(joined.getValue(2, "y")));
+	}
+
 
 
 
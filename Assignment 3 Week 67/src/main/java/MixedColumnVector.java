@@ -0,0 +1,176 @@
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class provides a DataVector that is a view on a single column of a MixedDataFrame. The values are read directly
+ * from the column and are only boxed when they are requested; numeric columns are copied into arrays of doubles
+ * without boxing. The entry names "row_0", "row_1", etcetera are only created when they are requested.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class MixedColumnVector implements DataVector<Object> {
+
+    private static final String ROW_PREFIX = "row_";
+
+    private final MixedDataFrame frame;
+    private final int column;
+
+    /**
+     * Constructs a view on a column of the DataFrame. Column vectors are obtained via MixedDataFrame.getColumn.
+     *
+     * @param frame the dataframe that holds the values
+     * @param column the position of the column in the dataframe
+     */
+
+    MixedColumnVector(MixedDataFrame frame, int column) {
+        this.frame = frame;
+        this.column = column;
+    }
+
+    /**
+     * @return the name of the column
+     */
+
+    @Override
+    public String getName() {
+        return this.frame.getColumnNames().get(this.column);
+    }
+
+    /**
+     * @return a list view on the names "row_0", "row_1", etcetera of the entries of this column
+     */
+
+    @Override
+    public List<String> getEntryNames() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return ROW_PREFIX + index;
+            }
+
+            @Override
+            public int size() {
+                return frame.getRowCount();
+            }
+        };
+    }
+
+    /**
+     * Returns the value of the given row in this column.
+     *
+     * @param entryName the name of the entry to extract, for example "row_3"
+     * @return the value stored in the row, or null if the value is missing or the name does not refer to a row of the
+     *         DataFrame
+     */
+
+    @Override
+    public Object getValue(String entryName) {
+        if (entryName == null || !entryName.startsWith(ROW_PREFIX)) {
+            return null;
+        }
+        int row;
+        try {
+            row = Integer.parseInt(entryName.substring(ROW_PREFIX.length()));
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+        if (row < 0 || row >= this.frame.getRowCount()) {
+            return null;
+        }
+        return this.frame.objectAt(row, this.column);
+    }
+
+    /**
+     * @return a list view on the values of this column, in the order of the rows
+     */
+
+    @Override
+    public List<Object> getValues() {
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return frame.objectAt(index, column);
+            }
+
+            @Override
+            public int size() {
+                return frame.getRowCount();
+            }
+        };
+    }
+
+    /**
+     * Copies the values of a numeric column into the given array without boxing them. Booleans are copied as 1 and 0,
+     * missing values as NaN.
+     *
+     * @param dst    the array to copy the values into
+     * @param offset the position in dst at which the first value is stored
+     * @throws IndexOutOfBoundsException if the values do not fit in dst
+     * @throws ClassCastException        if the column holds strings
+     */
+
+    @Override
+    public void copyInto(double[] dst, int offset) throws IndexOutOfBoundsException, ClassCastException {
+        int rowCount = this.frame.getRowCount();
+        if (offset < 0 || offset + rowCount > dst.length) {
+            throw new IndexOutOfBoundsException("Values do not fit in the destination array");
+        }
+        if (!this.frame.typeAt(this.column).isNumeric()) {
+            throw new ClassCastException("Values of the column are not numbers");
+        }
+        for (int i = 0; i < rowCount; i++) {
+            dst[offset + i] = this.frame.doubleAt(i, this.column);
+        }
+    }
+
+    /**
+     * @return the positions of the missing entries of this column, read without boxing any value
+     */
+
+    @Override
+    public BitSet missingEntries() {
+        BitSet missing = new BitSet();
+        for (int i = 0; i < this.frame.getRowCount(); i++) {
+            if (!this.frame.isValid(i, this.column)) {
+                missing.set(i);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @return a copy of the values of this column in a map with the row names as keys
+     */
+
+    @Override
+    public Map<String, Object> asMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < this.frame.getRowCount(); i++) {
+            map.put(ROW_PREFIX + i, this.frame.objectAt(i, this.column));
+        }
+        return map;
+    }
+
+    /**
+     * @return A String with the name and all values of the DataVector
+     */
+
+    @Override
+    public String toString() {
+        return "MixedColumnVector{" +
+                "name=" + getName() +
+                ", vector=" + asMap() +
+                '}';
+    }
+}
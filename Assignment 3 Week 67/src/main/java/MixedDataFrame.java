@@ -0,0 +1,758 @@
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class provides a DataFrame whose columns each hold values of their own type: doubles, ints, longs, booleans or
+ * strings. Every column is stored in the compact primitive form of its ColumnType, so identifiers take four or eight
+ * bytes, flags take a single bit and categories take an int code into a dictionary of distinct strings, instead of
+ * eight bytes per value in a DoubleDataFrame. Values are only boxed when they are read or written as objects.
+ *
+ * As in a DoubleDataFrame, a value can be missing, in which case it is read as null, and DataFrames derived by expand,
+ * project, select and computeColumn share unchanged columns with this DataFrame. A shared column is only copied by the
+ * DataFrame that writes to it first (copy-on-write).
+ *
+ * Statistics are computed on the numeric columns, which are converted to a DoubleDataFrame first.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class MixedDataFrame implements DataFrame<Object> {
+
+    private final List<String> columnNames;
+    private final Map<String, Integer> columnIndices;
+    private final Column[] columns;
+    private final boolean[] owned;
+    private final int rowCount;
+
+    /**
+     * Constructs a DataFrame directly on top of the provided columns, which must all have the same number of values.
+     * The columns are not copied, so the caller should not modify them afterwards.
+     *
+     * @param columnNames the names for the columns
+     * @param columns the storage of every column
+     * @throws IllegalArgumentException if the number of names and columns differ, a name is duplicated or the columns
+     *                                  differ in length
+     */
+
+    public MixedDataFrame(List<String> columnNames, List<? extends Column> columns) throws IllegalArgumentException {
+        this(columnNames, columns.toArray(new Column[0]), new boolean[columns.size()],
+                columns.isEmpty() ? 0 : columns.get(0).size());
+        Arrays.fill(this.owned, true);
+
+        if (columnNames.size() != columns.size()) {
+            throw new IllegalArgumentException("Number of column names and columns differ");
+        }
+        if (this.columnIndices.size() != columnNames.size()) {
+            throw new IllegalArgumentException("Duplicate columns detected");
+        }
+        for (Column column : columns) {
+            if (column.size() != this.rowCount) {
+                throw new IllegalArgumentException("Columns differ in length");
+            }
+        }
+    }
+
+    /**
+     * Constructs a DataFrame on top of the provided columns, of which some may be shared with another DataFrame.
+     *
+     * @param columnNames the names for the columns
+     * @param columns the storage of every column, each with at least rowCount values
+     * @param owned for every column whether the storage belongs to this DataFrame only, or is shared and must be copied
+     *              before it is written to
+     * @param rowCount the number of rows in the dataframe
+     */
+
+    private MixedDataFrame(List<String> columnNames, Column[] columns, boolean[] owned, int rowCount) {
+
+        this.columnNames = new ArrayList<>(columnNames);
+        this.columnIndices = new HashMap<>();
+        this.columns = columns;
+        this.owned = owned;
+        this.rowCount = rowCount;
+
+        for (int j = 0; j < this.columnNames.size(); j++) {
+            this.columnIndices.put(this.columnNames.get(j), j);
+        }
+    }
+
+    /**
+     * Creates a DataFrame with columns of the given types. Numeric and boolean values are 0 and false, strings are
+     * missing.
+     *
+     * @param columnNames the names for the columns
+     * @param types the type of every column
+     * @param rowCount the number of rows in the dataframe
+     * @return a new DataFrame
+     * @throws IllegalArgumentException if the number of names and types differ, a name is duplicated or the number of
+     *                                  rows is negative
+     */
+
+    public static MixedDataFrame allocate(List<String> columnNames, List<ColumnType> types, int rowCount) throws IllegalArgumentException {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("Negative number of rows");
+        }
+        if (columnNames.size() != types.size()) {
+            throw new IllegalArgumentException("Number of column names and types differ");
+        }
+        if (new HashSet<>(columnNames).size() != columnNames.size()) {
+            throw new IllegalArgumentException("Duplicate columns detected");
+        }
+        Column[] columns = new Column[types.size()];
+        boolean[] owned = new boolean[columns.length];
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = types.get(j).newColumn(rowCount);
+            owned[j] = true;
+        }
+        return new MixedDataFrame(columnNames, columns, owned, rowCount);
+    }
+
+    /**
+     * @return the number of rows in the dataframe
+     */
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the number of columns in the dataframe
+     */
+
+    @Override
+    public int getColumnCount() {
+        return this.columnNames.size();
+    }
+
+    /**
+     * @return a list with all column names of the dataframe
+     */
+
+    @Override
+    public List<String> getColumnNames() {
+        return this.columnNames;
+    }
+
+    /**
+     * @param colName the name of the column
+     * @return the type of the values of the column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    public ColumnType getColumnType(String colName) throws IllegalArgumentException {
+        return this.columns[indexOf(colName)].getType();
+    }
+
+    /**
+     * Sets the value of the provided row and variable in the dataframe. A null value marks the entry as missing.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colName  the name of the column in which the entry is stored
+     * @param value    the new value of the entry, which must be of the type of the column
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when an invalid column name is provided
+     * @throws ClassCastException when the value is not of the type of the column
+     */
+
+    @Override
+    public void setValue(int rowIndex, String colName, Object value) throws IndexOutOfBoundsException, IllegalArgumentException, ClassCastException {
+        checkRow(rowIndex);
+        int colIndex = indexOf(colName);
+        Column column = writableColumn(colIndex);
+        if (value != null) {
+            column.setObject(rowIndex, value);
+        }
+        else {
+
+            // Adds a validity bitmap to a column of doubles when its first value goes missing.
+
+            if (column instanceof DoubleColumn && !(column instanceof NullableColumn)) {
+                column = new NullableColumn((DoubleColumn) column);
+                this.columns[colIndex] = column;
+            }
+            column.setMissing(rowIndex);
+        }
+    }
+
+    /**
+     * Gets the value of the provided row and variable of the dataframe
+     *
+     * @param rowIndex the row index of the entry
+     * @param colName  the name of the column in which the entry is stored
+     * @return the value of the given variable from the given observation, or null if the value is missing
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when an invalid variable name is provided
+     */
+
+    @Override
+    public Object getValue(int rowIndex, String colName) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkRow(rowIndex);
+        return this.columns[indexOf(colName)].getObject(rowIndex);
+    }
+
+    /**
+     * Gets the value of the provided row and numeric variable as a primitive double, without boxing it. Booleans are
+     * read as 1 and 0.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colName  the name of the column in which the entry is stored
+     * @return the value of the given variable from the given observation, or NaN if the value is missing
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     * @throws IllegalArgumentException when an invalid variable name is provided
+     * @throws UnsupportedOperationException when the column holds strings
+     */
+
+    public double getDouble(int rowIndex, String colName) throws IndexOutOfBoundsException, IllegalArgumentException, UnsupportedOperationException {
+        checkRow(rowIndex);
+        return this.columns[indexOf(colName)].getAsDouble(rowIndex);
+    }
+
+    /**
+     * Returns the row as a DataVector. The DataVector is a view on the row, so no values are copied and later changes
+     * to the dataframe are visible through it.
+     *
+     * @param rowIndex the row index of the entry
+     * @return the row as a DataVector
+     * @throws IndexOutOfBoundsException if an invalid index number is provided
+     */
+
+    @Override
+    public DataVector<Object> getRow(int rowIndex) throws IndexOutOfBoundsException {
+        checkRow(rowIndex);
+        return new MixedRowVector(this, rowIndex, null);
+    }
+
+    /**
+     * Returns a column of the dataframe as a DataVector. The DataVector is a view on the column, so no values are
+     * copied and later changes to the dataframe are visible through it.
+     *
+     * @param colName the name of the column
+     * @return the column as a DataVector
+     * @throws IllegalArgumentException if an invalid column name is provided
+     */
+
+    @Override
+    public DataVector<Object> getColumn(String colName) throws IllegalArgumentException {
+        return new MixedColumnVector(this, indexOf(colName));
+    }
+
+    /**
+     * @return a list of all rows of the dataframe as DataVector, which creates the view on a row when it is requested
+     */
+
+    @Override
+    public List<DataVector<Object>> getRows() {
+        return new AbstractList<DataVector<Object>>() {
+            @Override
+            public DataVector<Object> get(int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    /**
+     * @return a list of all columns of the dataframe as DataVector, which creates the view on a column when it is
+     *         requested
+     */
+
+    @Override
+    public List<DataVector<Object>> getColumns() {
+        return new AbstractList<DataVector<Object>>() {
+            @Override
+            public DataVector<Object> get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return new MixedColumnVector(MixedDataFrame.this, index);
+            }
+
+            @Override
+            public int size() {
+                return columns.length;
+            }
+        };
+    }
+
+    /**
+     * Expands the DataFrame by constructing a new DataFrame with additional columns of doubles, which value are 0.
+     * Without additional rows the existing columns are shared with this DataFrame instead of copied. The additional
+     * rows of existing columns hold the values of a new column of their type.
+     *
+     * @param additionalRows the number of rows to add to the new data frame
+     * @param newCols        the names of the column to add to the new data frame.
+     * @return a DataFrame with additional columns which value are 0.
+     * @throws IllegalArgumentException the number of additional rows in negative or column names are duplicated
+     */
+
+    @Override
+    public MixedDataFrame expand(int additionalRows, List<String> newCols) throws IllegalArgumentException {
+        List<ColumnType> types = new ArrayList<>();
+        for (int k = 0; k < newCols.size(); k++) {
+            types.add(ColumnType.DOUBLE);
+        }
+        return expand(additionalRows, newCols, types);
+    }
+
+    /**
+     * Expands the DataFrame by constructing a new DataFrame with additional columns of the given types. Without
+     * additional rows the existing columns are shared with this DataFrame instead of copied.
+     *
+     * @param additionalRows the number of rows to add to the new data frame
+     * @param newCols        the names of the column to add to the new data frame
+     * @param types          the type of every new column
+     * @return a DataFrame with the additional rows and columns
+     * @throws IllegalArgumentException the number of additional rows in negative, column names are duplicated or the
+     *                                  number of names and types differ
+     */
+
+    public MixedDataFrame expand(int additionalRows, List<String> newCols, List<ColumnType> types) throws IllegalArgumentException {
+
+        if (additionalRows < 0) {
+            throw new IllegalArgumentException("Negative additional rows");
+        }
+        if (newCols.size() != types.size()) {
+            throw new IllegalArgumentException("Number of column names and types differ");
+        }
+        for (String column : newCols) {
+            if (this.columnIndices.containsKey(column)) {
+                throw new IllegalArgumentException("Dataframe already contains this column name");
+            }
+        }
+
+        List<String> allColumns = new ArrayList<>(this.columnNames);
+        allColumns.addAll(newCols);
+
+        // Shares every existing column if the number of rows stays the same, otherwise copies it into a longer column.
+
+        int newRowCount = this.rowCount + additionalRows;
+        Column[] values = new Column[allColumns.size()];
+        boolean[] valuesOwned = new boolean[values.length];
+        for (int j = 0; j < this.columns.length; j++) {
+            if (additionalRows == 0) {
+                values[j] = shareColumn(j);
+            }
+            else {
+                values[j] = this.columns[j].copy(newRowCount);
+                valuesOwned[j] = true;
+            }
+        }
+        for (int k = 0; k < types.size(); k++) {
+            values[this.columns.length + k] = types.get(k).newColumn(newRowCount);
+            valuesOwned[this.columns.length + k] = true;
+        }
+
+        return new MixedDataFrame(allColumns, values, valuesOwned, newRowCount);
+    }
+
+    /**
+     * Creates a new DataFrame with an additional column, which is not copied. The existing columns are shared with this
+     * DataFrame.
+     *
+     * @param colName the name of the new column
+     * @param column  the storage of the new column, with one value per row
+     * @return a DataFrame with the additional column
+     * @throws IllegalArgumentException if the name is already used or the column has another number of values
+     */
+
+    public MixedDataFrame withColumn(String colName, Column column) throws IllegalArgumentException {
+        if (this.columnIndices.containsKey(colName)) {
+            throw new IllegalArgumentException("Dataframe already contains this column name");
+        }
+        if (column.size() != this.rowCount) {
+            throw new IllegalArgumentException("Column has another number of values than the number of rows");
+        }
+        return derive(allColumnIndices(), null, this.rowCount, Collections.singletonList(colName), new Column[] { column });
+    }
+
+    /**
+     * Gives a dataframe with only the given columns that should be retained. The retained columns are shared with this
+     * DataFrame instead of copied.
+     *
+     * @param retainColumns the names of column that should be retained
+     * @return the DataFrame with the retained columns.
+     * @throws IllegalArgumentException if a provided column name is not a column of the dataframe
+     */
+
+    @Override
+    public MixedDataFrame project(Collection<String> retainColumns) throws IllegalArgumentException {
+
+        for (String column : retainColumns) {
+            if (!this.columnIndices.containsKey(column)) {
+                throw new IllegalArgumentException("Dataframe does not contain this column: " + column);
+            }
+        }
+
+        int[] retained = new int[this.columns.length];
+        int count = 0;
+        for (int j = 0; j < this.columns.length; j++) {
+            if (retainColumns.contains(this.columnNames.get(j))) {
+                retained[count] = j;
+                count++;
+            }
+        }
+
+        return derive(Arrays.copyOf(retained, count), null, this.rowCount, Collections.emptyList(), new Column[0]);
+    }
+
+    /**
+     * Gives a dataframe with only the given columns that should be retained, shared with this DataFrame.
+     *
+     * @param retainColumns the names of column that should be retained
+     * @return the DataFrame with the retained columns.
+     * @throws IllegalArgumentException if a provided column name is not a column of the dataframe
+     */
+
+    @Override
+    public MixedDataFrame project(String... retainColumns) throws IllegalArgumentException {
+        return project(Arrays.asList(retainColumns));
+    }
+
+    /**
+     * Creates a new DataFrame with rows that should be retained according to the provided filter. If every row is
+     * retained, the columns are shared with this DataFrame instead of copied.
+     *
+     * @param rowFilter a predicate that can indicate whether a row should be maintained
+     * @return a new DataFrame object with all rows that should be retained according to the provided filter.
+     */
+
+    @Override
+    public MixedDataFrame select(Predicate<DataVector<Object>> rowFilter) {
+        int[] selected = new int[this.rowCount];
+        int count = 0;
+        for (int i = 0; i < this.rowCount; i++) {
+            if (rowFilter.test(new MixedRowVector(this, i, null))) {
+                selected[count] = i;
+                count++;
+            }
+        }
+        return derive(allColumnIndices(), count == this.rowCount ? null : selected, count, Collections.emptyList(), new Column[0]);
+    }
+
+    /**
+     * Applies function to every row and adds the results as a new column of doubles to a new DataFrame. A null result
+     * is stored as a missing value. The existing columns are shared with this DataFrame.
+     *
+     * @param columnName the name of the new column
+     * @param function   the function to apply to each row
+     * @return a new DataFrame with the computed column added to it
+     * @throws IllegalArgumentException if a column with this name exists
+     */
+
+    @Override
+    public MixedDataFrame computeColumn(String columnName, Function<DataVector<Object>, Double> function) throws IllegalArgumentException {
+
+        if (this.columnIndices.containsKey(columnName)) {
+            throw new IllegalArgumentException("Dataframe already contains this column name");
+        }
+
+        DoubleColumn computed = new ArrayColumn(this.rowCount);
+        for (int i = 0; i < this.rowCount; i++) {
+            Double value = function.apply(new MixedRowVector(this, i, null));
+            if (value != null) {
+                computed.set(i, value);
+            }
+            else {
+                if (!(computed instanceof NullableColumn)) {
+                    computed = new NullableColumn(computed);
+                }
+                computed.setMissing(i);
+            }
+        }
+
+        return derive(allColumnIndices(), null, this.rowCount, Collections.singletonList(columnName), new Column[] { computed });
+    }
+
+    /**
+     * Creates a row DataVector which summarizes the values of all observations according to the given BinaryOperator.
+     * The reduction starts with the first value of each column and skips missing values; if a column has no values the
+     * summary is null. The operator must give values of the type of the column it is applied to.
+     *
+     * @param name            the name of the resulting data vector
+     * @param summaryFunction the binary operator that should be used to reduce the values in each column
+     * @return a DataVector which summarizes the values of all observations
+     * @throws ClassCastException if the operator gives a value of another type than the column
+     */
+
+    @Override
+    public DataVector<Object> summarize(String name, BinaryOperator<Object> summaryFunction) throws ClassCastException {
+
+        // Stores the summary of every column in a single row of a column of the same type.
+
+        Column[] summaries = new Column[this.columns.length];
+        for (int j = 0; j < this.columns.length; j++) {
+            Column column = this.columns[j];
+            Object result = null;
+            for (int i = 0; i < this.rowCount; i++) {
+                if (column.isValid(i)) {
+                    result = result == null ? column.getObject(i) : summaryFunction.apply(result, column.getObject(i));
+                }
+            }
+            summaries[j] = column.getType().newColumn(1);
+            if (result != null) {
+                summaries[j].setObject(0, result);
+            }
+            else if (summaries[j] instanceof DoubleColumn) {
+                summaries[j] = new NullableColumn((DoubleColumn) summaries[j]);
+                summaries[j].setMissing(0);
+            }
+            else {
+                summaries[j].setMissing(0);
+            }
+        }
+
+        MixedDataFrame summary = new MixedDataFrame(this.columnNames, Arrays.asList(summaries));
+        return new MixedRowVector(summary, 0, name);
+    }
+
+    /**
+     * Concatenates the columns of another DataFrame to the columns of this DataFrame. The columns of another
+     * MixedDataFrame are shared with the result instead of copied value by value, so they keep their type.
+     *
+     * @param other the data frame to concatenate to this data frame
+     * @return a newly created data frame containing both the data from this and the other data frame
+     * @throws IllegalArgumentException if the number of rows do no match or column names are duplicated
+     */
+
+    @Override
+    public MixedDataFrame concat(DataFrame<Object> other) throws IllegalArgumentException {
+        if (!(other instanceof MixedDataFrame)) {
+            return (MixedDataFrame) DataFrame.super.concat(other);
+        }
+        if (getRowCount() != other.getRowCount()) {
+            throw new IllegalArgumentException("Can only concatenate dataframes with equal numbers of rows");
+        }
+        for (String column : other.getColumnNames()) {
+            if (this.columnIndices.containsKey(column)) {
+                throw new IllegalArgumentException("Dataframe already contains this column name");
+            }
+        }
+        MixedDataFrame right = (MixedDataFrame) other;
+        Column[] shared = new Column[right.columns.length];
+        for (int j = 0; j < shared.length; j++) {
+            shared[j] = right.shareColumn(j);
+        }
+        MixedDataFrame result = derive(allColumnIndices(), null, this.rowCount, right.columnNames, shared);
+        Arrays.fill(result.owned, this.columns.length, result.owned.length, false);
+        return result;
+    }
+
+    /**
+     * Converts the numeric columns of this DataFrame into a DoubleDataFrame, in their order. Integers and booleans are
+     * converted to doubles, and missing values stay missing. Columns of doubles are copied, so later changes to either
+     * DataFrame are not visible in the other.
+     *
+     * @return a DoubleDataFrame with the numeric columns of this DataFrame
+     */
+
+    public DoubleDataFrame toDoubleDataFrame() {
+        List<String> names = new ArrayList<>();
+        List<DoubleColumn> converted = new ArrayList<>();
+        for (int j = 0; j < this.columns.length; j++) {
+            Column column = this.columns[j];
+            if (!column.getType().isNumeric()) {
+                continue;
+            }
+            names.add(this.columnNames.get(j));
+            if (column instanceof DoubleColumn) {
+                converted.add(((DoubleColumn) column).copy(this.rowCount));
+                continue;
+            }
+            DoubleColumn values = new ArrayColumn(this.rowCount);
+            for (int i = 0; i < this.rowCount; i++) {
+                if (column.isValid(i)) {
+                    values.set(i, column.getAsDouble(i));
+                }
+                else {
+                    if (!(values instanceof NullableColumn)) {
+                        values = new NullableColumn(values);
+                    }
+                    values.setMissing(i);
+                }
+            }
+            converted.add(values);
+        }
+        return DoubleDataFrame.fromColumns(names, converted.toArray(new DoubleColumn[0]), this.rowCount);
+    }
+
+    /**
+     * @return a Statistics object on the numeric columns of this dataframe; see toDoubleDataFrame
+     */
+
+    @Override
+    public DataFrameStatistics statistics() {
+        return new Statistic(toDoubleDataFrame());
+    }
+
+    /**
+     * Creates a new DataFrame from a selection of the columns and rows of this DataFrame, followed by new columns.
+     * If all rows are retained the selected columns are shared with the new DataFrame, otherwise the values of the
+     * retained rows are gathered into new columns. The new columns are owned by the new DataFrame.
+     *
+     * @param colIndices the positions of the columns of this DataFrame to retain, in order
+     * @param rows the indices of the rows to retain in their new order, or null to retain every row
+     * @param rowCount the number of rows to retain
+     * @param newNames the names of the new columns
+     * @param newColumns the storage of the new columns, each with at least rowCount values
+     * @return the derived DataFrame
+     */
+
+    private MixedDataFrame derive(int[] colIndices, int[] rows, int rowCount, List<String> newNames, Column[] newColumns) {
+
+        List<String> names = new ArrayList<>();
+        Column[] values = new Column[colIndices.length + newColumns.length];
+        boolean[] valuesOwned = new boolean[values.length];
+
+        for (int k = 0; k < colIndices.length; k++) {
+            int j = colIndices[k];
+            names.add(this.columnNames.get(j));
+            if (rows == null) {
+                values[k] = shareColumn(j);
+            }
+            else {
+                values[k] = this.columns[j].gather(rows, rowCount);
+                valuesOwned[k] = true;
+            }
+        }
+
+        names.addAll(newNames);
+        for (int k = 0; k < newColumns.length; k++) {
+            values[colIndices.length + k] = newColumns[k];
+            valuesOwned[colIndices.length + k] = true;
+        }
+
+        return new MixedDataFrame(names, values, valuesOwned, rowCount);
+    }
+
+    /**
+     * @return the positions of all columns of this DataFrame, in order
+     */
+
+    private int[] allColumnIndices() {
+        int[] indices = new int[this.columns.length];
+        for (int j = 0; j < indices.length; j++) {
+            indices[j] = j;
+        }
+        return indices;
+    }
+
+    /**
+     * Marks a column as shared with another DataFrame, so that both DataFrames copy the column before writing to it.
+     *
+     * @param colIndex the position of the column
+     * @return the storage of the column
+     */
+
+    private Column shareColumn(int colIndex) {
+        this.owned[colIndex] = false;
+        return this.columns[colIndex];
+    }
+
+    /**
+     * Gives the storage of a column that may be written to. If the storage is shared with another DataFrame or is
+     * read-only, it is copied first and the copy replaces the original storage in this DataFrame.
+     *
+     * @param colIndex the position of the column
+     * @return the storage of the column that belongs to this DataFrame only
+     */
+
+    private Column writableColumn(int colIndex) {
+        if (!this.owned[colIndex] || this.columns[colIndex].isReadOnly()) {
+            this.columns[colIndex] = this.columns[colIndex].copy(this.rowCount);
+            this.owned[colIndex] = true;
+        }
+        return this.columns[colIndex];
+    }
+
+    /**
+     * Reads a value by position as an object, without any checks. Used by the row and column views of this dataframe.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colIndex the position of the column
+     * @return the value stored at the entry, or null if the value is missing
+     */
+
+    Object objectAt(int rowIndex, int colIndex) {
+        return this.columns[colIndex].getObject(rowIndex);
+    }
+
+    /**
+     * Reads a numeric value by position as a primitive double, without any checks.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colIndex the position of the column
+     * @return the value stored at the entry, or NaN if the value is missing
+     */
+
+    double doubleAt(int rowIndex, int colIndex) {
+        return this.columns[colIndex].getAsDouble(rowIndex);
+    }
+
+    /**
+     * Tells by position whether a value is present, without any checks.
+     *
+     * @param rowIndex the row index of the entry
+     * @param colIndex the position of the column
+     * @return whether the value is present
+     */
+
+    boolean isValid(int rowIndex, int colIndex) {
+        return this.columns[colIndex].isValid(rowIndex);
+    }
+
+    /**
+     * @param colIndex the position of the column
+     * @return the type of the values of the column
+     */
+
+    ColumnType typeAt(int colIndex) {
+        return this.columns[colIndex].getType();
+    }
+
+    /**
+     * Looks up the position of a column in the dataframe.
+     *
+     * @param colName the name of the column
+     * @return the position of the column, or -1 if the dataframe has no column with this name
+     */
+
+    int findColumn(String colName) {
+        Integer index = this.columnIndices.get(colName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Checks whether the row index lies within the dataframe.
+     *
+     * @param rowIndex the row index to check
+     * @throws IndexOutOfBoundsException when an invalid index number is provided
+     */
+
+    private void checkRow(int rowIndex) throws IndexOutOfBoundsException {
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+    }
+
+    /**
+     * Looks up the position of a column in the dataframe.
+     *
+     * @param colName the name of the column
+     * @return the position of the column
+     * @throws IllegalArgumentException when an invalid column name is provided
+     */
+
+    private int indexOf(String colName) throws IllegalArgumentException {
+        Integer index = this.columnIndices.get(colName);
+        if (index == null) {
+            throw new IllegalArgumentException("Non existing column provided");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class provides a DataVector that is a view on a single row of a MixedDataFrame. The values are read directly
+ * from the columns of the DataFrame and are only boxed when they are requested, so creating a row vector does not copy
+ * any data and changes to the DataFrame are visible through the vector.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class MixedRowVector implements DataVector<Object> {
+
+    private final MixedDataFrame frame;
+    private final int row;
+    private final String name;
+
+    /**
+     * Constructs a view on a row of the DataFrame. Row vectors are obtained via MixedDataFrame.getRow.
+     *
+     * @param frame the dataframe that holds the values
+     * @param row the index of the row in the dataframe
+     * @param name the name of the vector, or null for "row_" followed by the row index
+     */
+
+    MixedRowVector(MixedDataFrame frame, int row, String name) {
+        this.frame = frame;
+        this.row = row;
+        this.name = name;
+    }
+
+    /**
+     * @return the index of the row in the DataFrame
+     */
+
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * @return the name of the DataVector, which is "row_" followed by the row index unless another name was given
+     */
+
+    @Override
+    public String getName() {
+        return this.name != null ? this.name : "row_" + this.row;
+    }
+
+    /**
+     * @return the names of the columns of the DataFrame
+     */
+
+    @Override
+    public List<String> getEntryNames() {
+        return this.frame.getColumnNames();
+    }
+
+    /**
+     * Returns the value of the given column in this row.
+     *
+     * @param entryName the name of the entry to extract
+     * @return the value stored in the column, or null if the value is missing or the DataFrame has no column with this name
+     */
+
+    @Override
+    public Object getValue(String entryName) {
+        int column = this.frame.findColumn(entryName);
+        if (column < 0) {
+            return null;
+        }
+        return this.frame.objectAt(this.row, column);
+    }
+
+    /**
+     * @return a list view on the values of this row, in the order of the columns
+     */
+
+    @Override
+    public List<Object> getValues() {
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index");
+                }
+                return frame.objectAt(row, index);
+            }
+
+            @Override
+            public int size() {
+                return frame.getColumnCount();
+            }
+        };
+    }
+
+    /**
+     * @return a copy of the values of this row in a map with the column names as keys
+     */
+
+    @Override
+    public Map<String, Object> asMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        List<String> names = this.frame.getColumnNames();
+        for (int j = 0; j < names.size(); j++) {
+            map.put(names.get(j), this.frame.objectAt(this.row, j));
+        }
+        return map;
+    }
+
+    /**
+     * @return A String with the name and all values of the DataVector
+     */
+
+    @Override
+    public String toString() {
+        return "MixedRowVector{" +
+                "name=" + getName() +
+                ", vector=" + asMap() +
+                '}';
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * This class provides a column that can hold missing values (NA). The values are stored in another column, while a
+ * validity bitmap with one bit per row records which values are present. A missing value is stored as NaN in the
+ * underlying column, so a missing value reads as NaN wherever the bitmap is not consulted, but it is distinct from a
+ * NaN that was stored on purpose.
+ *
+ * A DoubleDataFrame only wraps a column in a nullable column once a missing value is stored in it, so columns without
+ * missing values carry no bitmap.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class NullableColumn extends DoubleColumn {
+
+    private final DoubleColumn values;
+    private final long[] validity;
+
+    /**
+     * Constructs a nullable column on top of a column of values and a validity bitmap. Neither is copied.
+     *
+     * @param values the column that stores the values
+     * @param validity the bitmap in which bit i is set if the value at row i is present
+     */
+
+    NullableColumn(DoubleColumn values, long[] validity) {
+        this.values = values;
+        this.validity = validity;
+    }
+
+    /**
+     * Constructs a nullable column on top of a column of values, in which every value is present.
+     *
+     * @param values the column that stores the values
+     */
+
+    public NullableColumn(DoubleColumn values) {
+        this(values, Bitmaps.allSet(values.size()));
+    }
+
+    /**
+     * @return the column that stores the values, with NaN at the missing rows
+     */
+
+    public DoubleColumn getValues() {
+        return this.values;
+    }
+
+    @Override
+    public int size() {
+        return this.values.size();
+    }
+
+    @Override
+    public double get(int row) {
+        return this.values.get(row);
+    }
+
+    /**
+     * Sets the value stored at a row, which makes the value present.
+     *
+     * @param row the row index of the value
+     * @param value the new value
+     */
+
+    @Override
+    public void set(int row, double value) {
+        this.values.set(row, value);
+        Bitmaps.set(this.validity, row, true);
+    }
+
+    /**
+     * Marks the value at a row as missing.
+     *
+     * @param row the row index of the value
+     */
+
+    @Override
+    public void setMissing(int row) {
+        this.values.set(row, Double.NaN);
+        Bitmaps.set(this.validity, row, false);
+    }
+
+    @Override
+    public boolean isValid(int row) {
+        return Bitmaps.get(this.validity, row);
+    }
+
+    @Override
+    public int nextMissing(int from, int to) {
+        int word = from >>> 6;
+        if (from >= to) {
+            return to;
+        }
+        long missing = ~this.validity[word] & (-1L << from);
+        while (missing == 0) {
+            word++;
+            if ((long) word << 6 >= to) {
+                return to;
+            }
+            missing = ~this.validity[word];
+        }
+        return Math.min(to, (word << 6) + Long.numberOfTrailingZeros(missing));
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return this.values.isReadOnly();
+    }
+
+    /**
+     * Collects the rows in a range from the values, where a missing value is NaN and thus never in a range.
+     */
+
+    @Override
+    public int rowsInRange(double low, double high, int length, int[] rows) {
+        return this.values.rowsInRange(low, high, length, rows);
+    }
+
+    /**
+     * Creates a writable copy of the first values of this column, with the same missing values. If the copy is longer
+     * than this column, the additional values are 0 and present.
+     *
+     * @param length the number of values of the copy
+     * @return a new column that shares no storage with this column
+     */
+
+    @Override
+    public DoubleColumn copy(int length) {
+        return withValues(this.values.copy(length));
+    }
+
+    /**
+     * Creates a nullable column with the same missing values as this column on top of another column of values, for
+     * example a copy of the values of this column in other storage.
+     *
+     * @param copiedValues the values of the new column, of which the rows beyond this column are present
+     * @return a new column with its own copy of the validity bitmap
+     */
+
+    NullableColumn withValues(DoubleColumn copiedValues) {
+        return new NullableColumn(copiedValues, Bitmaps.copy(this.validity, size(), copiedValues.size(), true));
+    }
+
+    @Override
+    public void copyTo(int from, double[] dst, int offset, int length) {
+        this.values.copyTo(from, dst, offset, length);
+    }
+
+    /**
+     * Copies values from an array into a range of this column, which makes the values present.
+     */
+
+    @Override
+    public void copyFrom(int from, double[] src, int offset, int length) {
+        this.values.copyFrom(from, src, offset, length);
+        for (int i = from; i < from + length; i++) {
+            Bitmaps.set(this.validity, i, true);
+        }
+    }
+
+    @Override
+    public DoubleColumn gather(int[] rows, int count) {
+        return withGathered(this.values.gather(rows, count), rows, count);
+    }
+
+    /**
+     * Creates a nullable column on top of values that were gathered from this column, with the validity of the same
+     * rows.
+     *
+     * @param gatheredValues the values at the given rows of this column
+     * @param rows the row indices of the gathered values
+     * @param count the number of row indices to use
+     * @return a new column with count values
+     */
+
+    NullableColumn withGathered(DoubleColumn gatheredValues, int[] rows, int count) {
+        return new NullableColumn(gatheredValues, Bitmaps.gather(this.validity, rows, count));
+    }
+
+    /**
+     * Reduces the present values of a range with an operator, starting from the first present value of the range.
+     *
+     * @param from the row index of the first value
+     * @param to the row index after the last value
+     * @param operator the operator that combines two values
+     * @return the reduced value, or NaN if every value in the range is missing
+     */
+
+    @Override
+    public double reduce(int from, int to, DoubleBinaryOperator operator) {
+        int i = from;
+        while (i < to && !isValid(i)) {
+            i++;
+        }
+        if (i == to) {
+            return Double.NaN;
+        }
+        double result = this.values.get(i);
+        for (i++; i < to; i++) {
+            if (isValid(i)) {
+                result = operator.applyAsDouble(result, this.values.get(i));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Provides tools to process a range of rows in parallel. The range is split into chunks of consecutive rows, which are
+ * processed on the common ForkJoin pool.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public final class ParallelTools {
+
+    /**
+     * The default number of consecutive rows that is processed by a single task.
+     */
+
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    /**
+     * An action on a range of consecutive rows.
+     */
+
+    @FunctionalInterface
+    public interface RangeAction {
+
+        /**
+         * Processes the rows from (inclusive) up to (exclusive).
+         *
+         * @param from the first row of the range
+         * @param to the row after the last row of the range
+         */
+
+        void apply(int from, int to);
+    }
+
+    private ParallelTools() {
+    }
+
+    /**
+     * Splits the rows 0 up to size into chunks of the default size and applies the action to every chunk in parallel.
+     *
+     * @param size the number of rows
+     * @param action the action to apply to every chunk
+     */
+
+    public static void forEachChunk(int size, RangeAction action) {
+        forEachChunk(size, DEFAULT_CHUNK_SIZE, action);
+    }
+
+    /**
+     * Splits the rows 0 up to size into chunks and applies the action to every chunk in parallel. Ranges that fit in a
+     * single chunk are processed on the calling thread.
+     *
+     * @param size the number of rows
+     * @param chunkSize the maximum number of rows in a chunk
+     * @param action the action to apply to every chunk
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+
+    public static void forEachChunk(int size, int chunkSize, RangeAction action) throws IllegalArgumentException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size should be positive");
+        }
+        if (size <= chunkSize) {
+            action.apply(0, size);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, size, chunkSize, action));
+    }
+
+    /**
+     * @param size the number of rows
+     * @param chunkSize the maximum number of rows in a chunk
+     * @return the number of chunks forEachChunk splits the rows into
+     */
+
+    public static int chunkCount(int size, int chunkSize) {
+        return Math.max(1, (size + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * A task that splits its range in two halves until the range fits in a single chunk.
+     */
+
+    private static final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final RangeAction action;
+
+        private ChunkTask(int from, int to, int chunkSize, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.chunkSize) {
+                this.action.apply(this.from, this.to);
+                return;
+            }
+
+            // Splits on a chunk boundary, so every chunk starts at a multiple of the chunk size.
+
+            int chunks = (this.to - this.from + this.chunkSize - 1) / this.chunkSize;
+            int middle = this.from + (chunks / 2) * this.chunkSize;
+            invokeAll(new ChunkTask(this.from, middle, this.chunkSize, this.action),
+                    new ChunkTask(middle, this.to, this.chunkSize, this.action));
+        }
+    }
+}
@@ -19,10 +19,10 @@ public class Plotter implements DataFramePlotting {
     @Override
     public XYChart scatter(String title, String xVar, String yVar) {
 
-        XYChart chart = new XYChart(df.getColumn(xVar).getValues().size(), df.getColumn(yVar).getValues().size());
+        double[] xVariables = df.getColumn(xVar).toDoubleArray();
+        double[] yVariables = df.getColumn(yVar).toDoubleArray();
 
-        double[] xVariables = df.getColumn(xVar).getValues().stream().mapToDouble(d -> d).toArray();
-        double[] yVariables = df.getColumn(yVar).getValues().stream().mapToDouble(d -> d).toArray();
+        XYChart chart = new XYChart(xVariables.length, yVariables.length);
 
         chart.addSeries(title, xVariables, yVariables);
         chart.setXAxisTitle( xVar);
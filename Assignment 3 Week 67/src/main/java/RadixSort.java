@@ -0,0 +1,114 @@
+/**
+ * Provides a stable least significant digit radix sort on long keys, which carries along a permutation of row indices.
+ * Doubles are sorted by first converting them to keys whose order as signed longs is the order of the doubles.
+ *
+ * The keys are sorted one byte at a time, starting with the least significant byte, so sorting n keys takes at most
+ * eight linear passes regardless of the values. A pass is skipped if all keys have the same byte at that position.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public final class RadixSort {
+
+    private static final int RADIX = 256;
+
+    private RadixSort() {
+    }
+
+    /**
+     * Converts a double to a key whose order as a signed long is the numeric order of the doubles. Negative zero comes
+     * directly before positive zero, and NaN comes after positive infinity.
+     *
+     * @param value the value to convert
+     * @return the sortable key of the value
+     */
+
+    public static long sortableKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Sorts keys in ascending order, in place. The sort is stable: equal keys keep their original order.
+     *
+     * @param keys the keys to sort
+     * @return the permutation of the sort: the k-th value is the original position of the k-th smallest key
+     */
+
+    public static int[] sort(long[] keys) {
+        int[] rows = new int[keys.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        sort(keys, rows);
+        return rows;
+    }
+
+    /**
+     * Sorts keys in ascending order, in place, and applies the same reordering to the rows. The sort is stable: equal
+     * keys keep their original order.
+     *
+     * @param keys the keys to sort
+     * @param rows the row indices that belong to the keys, of the same length
+     * @throws IllegalArgumentException if the keys and rows differ in length
+     */
+
+    public static void sort(long[] keys, int[] rows) throws IllegalArgumentException {
+        if (keys.length != rows.length) {
+            throw new IllegalArgumentException("Number of keys and rows differ");
+        }
+        int n = keys.length;
+
+        // Counts the occurrences of every byte value at every position in a single pass. The sign bit is flipped, so
+        // the most significant byte orders negative keys before positive keys.
+
+        int[][] counts = new int[8][RADIX];
+        for (int i = 0; i < n; i++) {
+            long key = keys[i] ^ Long.MIN_VALUE;
+            for (int b = 0; b < 8; b++) {
+                counts[b][(int) (key >>> (8 * b)) & 0xFF]++;
+            }
+        }
+
+        // Distributes the keys by one byte per pass, alternating between the input arrays and scratch arrays.
+
+        long[] sourceKeys = keys;
+        int[] sourceRows = rows;
+        long[] targetKeys = null;
+        int[] targetRows = null;
+        int[] offsets = new int[RADIX];
+        for (int b = 0; b < 8; b++) {
+            int[] count = counts[b];
+            if (n == 0 || count[(int) ((sourceKeys[0] ^ Long.MIN_VALUE) >>> (8 * b)) & 0xFF] == n) {
+                continue;
+            }
+            if (targetKeys == null) {
+                targetKeys = new long[n];
+                targetRows = new int[n];
+            }
+            int offset = 0;
+            for (int d = 0; d < RADIX; d++) {
+                offsets[d] = offset;
+                offset += count[d];
+            }
+            for (int i = 0; i < n; i++) {
+                long key = sourceKeys[i];
+                int digit = (int) ((key ^ Long.MIN_VALUE) >>> (8 * b)) & 0xFF;
+                int position = offsets[digit]++;
+                targetKeys[position] = key;
+                targetRows[position] = sourceRows[i];
+            }
+            long[] swapKeys = sourceKeys;
+            int[] swapRows = sourceRows;
+            sourceKeys = targetKeys;
+            sourceRows = targetRows;
+            targetKeys = swapKeys;
+            targetRows = swapRows;
+        }
+
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, n);
+            System.arraycopy(sourceRows, 0, rows, 0, n);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * This class provides a cursor over the rows of a DoubleDataFrame. A single cursor moves from row to row, so scanning
+ * the rows with a cursor creates no object per row, unlike the DataVector views of getRows and iterator. The values of
+ * the current row are read by column handle as primitive doubles, without boxing or looking up column names.
+ *
+ * A cursor is only valid inside the scan that provides it: it must not be kept after the action returns, since it
+ * moves on to the next row.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public final class RowCursor {
+
+    private final DoubleDataFrame frame;
+    private int row;
+
+    /**
+     * Constructs a cursor on the first row of a dataframe. Cursors are obtained via DoubleDataFrame.forEachRow.
+     *
+     * @param frame the dataframe that holds the values
+     */
+
+    RowCursor(DoubleDataFrame frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * Moves the cursor to another row.
+     *
+     * @param row the index of the row in the dataframe
+     */
+
+    void moveTo(int row) {
+        this.row = row;
+    }
+
+    /**
+     * @return the index of the current row in the dataframe
+     */
+
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Gets the value of a column in the current row.
+     *
+     * @param column the handle of the column
+     * @return the value of the column in the current row, or NaN if the value is missing
+     * @throws IllegalArgumentException when the handle belongs to another dataframe
+     */
+
+    public double getDouble(ColumnHandle column) throws IllegalArgumentException {
+        return this.frame.valueAt(this.row, checkHandle(column));
+    }
+
+    /**
+     * Tells whether the value of a column in the current row is missing.
+     *
+     * @param column the handle of the column
+     * @return whether the value is missing
+     * @throws IllegalArgumentException when the handle belongs to another dataframe
+     */
+
+    public boolean isNA(ColumnHandle column) throws IllegalArgumentException {
+        return !this.frame.isValid(this.row, checkHandle(column));
+    }
+
+    /**
+     * @param column a column handle
+     * @return the position of the column
+     * @throws IllegalArgumentException when the handle belongs to another dataframe
+     */
+
+    private int checkHandle(ColumnHandle column) throws IllegalArgumentException {
+        if (column.getFrame() != this.frame) {
+            throw new IllegalArgumentException("Column handle belongs to another dataframe");
+        }
+        return column.getIndex();
+    }
+
+    /**
+     * @return A String with the dataframe row of the cursor
+     */
+
+    @Override
+    public String toString() {
+        return "RowCursor{" +
+                "row=" + row +
+                '}';
+    }
+}
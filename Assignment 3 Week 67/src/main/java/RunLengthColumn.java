@@ -0,0 +1,125 @@
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * This class provides a column that is run-length encoded: every run of equal consecutive values is stored once,
+ * together with the row at which the run ends. Sorted and other repetitive columns, such as a year column, shrink to a
+ * few runs.
+ *
+ * A value is found by a binary search over the ends of the runs, but the run of the previous read is tried first, so a
+ * scan over consecutive rows only moves from one run to the next. Range queries test every run once.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class RunLengthColumn extends EncodedColumn {
+
+    private final double[] values;
+    private final int[] ends;
+
+    // The run of the previous read. The field is only a hint: it is read once per call and checked before it is used,
+    // so concurrent reads from multiple threads stay correct.
+
+    private int lastRun;
+
+    /**
+     * Constructs a column from its runs. The arrays are not copied.
+     *
+     * @param values the value of every run
+     * @param ends the row after the last row of every run, in ascending order
+     */
+
+    RunLengthColumn(double[] values, int[] ends) {
+        this.values = values;
+        this.ends = ends;
+    }
+
+    /**
+     * @return the number of runs
+     */
+
+    public int getRunCount() {
+        return this.values.length;
+    }
+
+    @Override
+    public int size() {
+        return this.ends.length == 0 ? 0 : this.ends[this.ends.length - 1];
+    }
+
+    @Override
+    public double get(int row) {
+        return this.values[runOf(row)];
+    }
+
+    @Override
+    public long encodedSize() {
+        return 12L * this.values.length;
+    }
+
+    /**
+     * Finds the run that holds a row, trying the run of the previous read and the run after it first.
+     *
+     * @param row the row index
+     * @return the position of the run
+     */
+
+    private int runOf(int row) {
+        int run = this.lastRun;
+        if (run < this.ends.length && row < this.ends[run] && (run == 0 || row >= this.ends[run - 1])) {
+            return run;
+        }
+        run++;
+        if (run < this.ends.length && row < this.ends[run] && row >= this.ends[run - 1]) {
+            this.lastRun = run;
+            return run;
+        }
+        run = Arrays.binarySearch(this.ends, row + 1);
+        run = run >= 0 ? run : -run - 1;
+        this.lastRun = run;
+        return run;
+    }
+
+    @Override
+    public void copyTo(int from, double[] dst, int offset, int length) {
+        int row = from;
+        int end = from + length;
+        for (int run = runOf(from); row < end; run++) {
+            int runEnd = Math.min(end, this.ends[run]);
+            Arrays.fill(dst, offset + row - from, offset + runEnd - from, this.values[run]);
+            row = runEnd;
+        }
+    }
+
+    @Override
+    public double reduce(int from, int to, DoubleBinaryOperator operator) {
+        int run = runOf(from);
+        double value = this.values[run];
+        double result = value;
+        for (int i = from + 1; i < to; i++) {
+            if (i == this.ends[run]) {
+                run++;
+                value = this.values[run];
+            }
+            result = operator.applyAsDouble(result, value);
+        }
+        return result;
+    }
+
+    @Override
+    public int rowsInRange(double low, double high, int length, int[] rows) {
+        int count = 0;
+        int start = 0;
+        for (int run = 0; run < this.ends.length && start < length; run++) {
+            int end = Math.min(length, this.ends[run]);
+            if (low <= this.values[run] && this.values[run] <= high) {
+                for (int i = start; i < end; i++) {
+                    rows[count] = i;
+                    count++;
+                }
+            }
+            start = end;
+        }
+        return count;
+    }
+}
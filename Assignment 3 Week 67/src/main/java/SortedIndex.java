@@ -0,0 +1,99 @@
+import java.util.Arrays;
+
+/**
+ * This class provides a sorted index on a single column of a DoubleDataFrame. The index holds the values of the column
+ * in ascending order, as sortable keys, together with the row at which every value is stored. Rows with values in a
+ * range are found with two binary searches, so a range query only visits the matching rows.
+ *
+ * An index describes the values of a column at the time it was created. The DataFrame drops the index of a column as
+ * soon as the column is written to.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+final class SortedIndex {
+
+    private final long[] keys;
+    private final int[] rows;
+
+    /**
+     * Builds an index on the first values of a column.
+     *
+     * @param column the column to index
+     * @param rowCount the number of values to index
+     */
+
+    SortedIndex(DoubleColumn column, int rowCount) {
+        this.keys = new long[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            this.keys[i] = RadixSort.sortableKey(column.get(i));
+        }
+        this.rows = RadixSort.sort(this.keys);
+    }
+
+    /**
+     * Finds the rows whose value lies in a closed range. NaN values are never in a range, and negative and positive
+     * zero are equal.
+     *
+     * @param low the smallest value in the range
+     * @param high the largest value in the range
+     * @return the indices of the matching rows in ascending order
+     */
+
+    int[] rowsInRange(double low, double high) {
+        if (Double.isNaN(low) || Double.isNaN(high) || low > high) {
+            return new int[0];
+        }
+
+        // Searches the first key that is not smaller than low and the first key that is larger than high. Negative zero
+        // is included in any range that starts or ends at zero.
+
+        long lowKey = RadixSort.sortableKey(low == 0 ? -0.0 : low);
+        long highKey = RadixSort.sortableKey(high == 0 ? 0.0 : high);
+        int from = firstAbove(lowKey - 1);
+        int to = firstAbove(highKey);
+
+        // Puts the matching rows back in ascending order: by sorting them if there are few, otherwise by marking them
+        // and collecting the marks in a single pass.
+
+        int count = to - from;
+        if (count < this.rows.length >>> 4) {
+            int[] matches = Arrays.copyOfRange(this.rows, from, to);
+            Arrays.sort(matches);
+            return matches;
+        }
+        boolean[] marked = new boolean[this.rows.length];
+        for (int k = from; k < to; k++) {
+            marked[this.rows[k]] = true;
+        }
+        int[] matches = new int[count];
+        int m = 0;
+        for (int i = 0; i < marked.length; i++) {
+            if (marked[i]) {
+                matches[m] = i;
+                m++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @param key a sortable key
+     * @return the position of the first key in the index that is larger than the given key
+     */
+
+    private int firstAbove(long key) {
+        int low = 0;
+        int high = this.keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.keys[middle] <= key) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -1,7 +1,9 @@
 import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,7 +13,11 @@ import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 
 /**
  * This class provides a statistical tool which can compare DataVectors and return the p-values according to the Student T test
- * and the pearsons correlation
+ * and the pearsons correlation. Missing values are left out of every test: a test on a single column uses the values that
+ * are present, a test on a pair of columns uses the rows in which both values are present, and the linear model uses the
+ * rows in which every variable is present (listwise deletion).
+ * The t tests only need the number of values, the mean and the variance of a column, which a DoubleDataFrame keeps as
+ * running aggregates, so on a DoubleDataFrame they do not scan the columns again while the columns do not change.
  *
  * @author 621810cc Carlos de Cloet
  */
@@ -35,7 +41,8 @@ public class Statistic implements DataFrameStatistics {
         this.t = new TTest();
     }
 
-    /** Performs an unpaired T test that tells if the observed values are different from the given mean
+    /** Performs an unpaired T test that tells if the observed values are different from the given mean. Missing values
+     * are left out.
      *
      * @param var the variable for which the test statistic will be computed
      * @param mu  the mean to compare against
@@ -44,13 +51,12 @@ public class Statistic implements DataFrameStatistics {
 
     public double tTest(String var, double mu){
 
-        DataVector<Double> test = df.getColumn(var);
-        double[] observation = test.getValues().stream().mapToDouble(d -> d).toArray();
-        return t.tTest(mu, observation);
+        return t.tTest(mu, summary(var));
     }
 
     /**
-     * Performs an unpaired T test that test if the observed values from the colums differ from each other
+     * Performs an unpaired T test that test if the observed values from the colums differ from each other. Missing values
+     * are left out of each column.
      * @param var1 the name of the first column to compare
      * @param var2 the name of the second column to compare
      * @return the p-value of the test
@@ -58,17 +64,11 @@ public class Statistic implements DataFrameStatistics {
 
     public double tTest(String var1, String var2){
 
-        DataVector<Double> test1 = df.getColumn(var1);
-        DataVector<Double> test2 = df.getColumn(var2);
-
-        double[] observations1 = test1.getValues().stream().mapToDouble(d -> d).toArray();
-        double[] observations2 = test2.getValues().stream().mapToDouble(d -> d).toArray();
-
-        return t.tTest(observations1,observations2);
+        return t.tTest(summary(var1), summary(var2));
     }
 
     /**
-     * Calculates the pearson correlation between the columns
+     * Calculates the pearson correlation between the columns, over the rows in which both values are present
      *
      * @param var1 the name of the first column
      * @param var2 the name of the second column
@@ -80,15 +80,40 @@ public class Statistic implements DataFrameStatistics {
         DataVector<Double> test1 = df.getColumn(var1);
         DataVector<Double> test2 = df.getColumn(var2);
 
-        double[] observations1 = test1.getValues().stream().mapToDouble(d -> d).toArray();
-        double[] observations2 = test2.getValues().stream().mapToDouble(d -> d).toArray();
+        BitSet missing = test1.missingEntries();
+        missing.or(test2.missingEntries());
+        double[] observations1 = present(test1.toDoubleArray(), missing);
+        double[] observations2 = present(test2.toDoubleArray(), missing);
 
         PearsonsCorrelation pc = new PearsonsCorrelation();
         return pc.correlation(observations1, observations2);
     }
 
     /**
-     * Gives a number of statistics for the provided column
+     * Gives the number of values, sum, mean, variance, minimum and maximum of the provided column, computed over the
+     * values that are present. On a DoubleDataFrame these come from the running aggregates of the column.
+     *
+     * @param var the name of the column
+     * @return the summary statistics of the column
+     */
+
+    public StatisticalSummary summary(String var){
+
+        if(df instanceof DoubleDataFrame){
+            return ((DoubleDataFrame) df).columnStatistics(var);
+        }
+        DataVector<Double> test = df.getColumn(var);
+        double[] observation = present(test.toDoubleArray(), test.missingEntries());
+        ColumnStatistics statistics = new ColumnStatistics();
+        statistics.refresh(new ArrayColumn(observation), observation.length);
+        return statistics;
+    }
+
+    /**
+     * Gives a number of statistics for the provided column, computed over the values that are present. Unlike summary,
+     * this keeps every value, which the percentiles need, so it always reads the whole column. On a DoubleDataFrame the
+     * number of values, sum, mean, variance, minimum and maximum still come from the running aggregates of the column,
+     * so only the statistics that need every value, such as the percentiles, are computed from the values.
      * @param var the name of the column for which the descriptive statistics must
      *            be computed
      * @return a number of statistics for the provided column
@@ -97,12 +122,16 @@ public class Statistic implements DataFrameStatistics {
     public DescriptiveStatistics describe(String var){
 
         DataVector<Double> test = df.getColumn(var);
-        double[] observation = test.getValues().stream().mapToDouble(d -> d).toArray();
+        double[] observation = present(test.toDoubleArray(), test.missingEntries());
+        if(df instanceof DoubleDataFrame){
+            return new SummarizedStatistics(observation, ((DoubleDataFrame) df).columnStatistics(var));
+        }
         return new DescriptiveStatistics(observation);
     }
 
     /**
-     * Estimates a linear model with a single dependent variable and multiple independent variables.
+     * Estimates a linear model with a single dependent variable and multiple independent variables. Rows in which any
+     * of the variables is missing are left out.
      *
      * @param dep   the dependent variable
      * @param indep a list of independent variables
@@ -115,20 +144,25 @@ public class Statistic implements DataFrameStatistics {
         // Initializes data gathered from the dataframe using datavectors.
 
         DataVector<Double> depVector = df.getColumn(dep);
-        double[] depData = depVector.getValues().stream().mapToDouble(d -> d).toArray();
 
         List<DataVector<Double>> indeps = new ArrayList<>();
         indep.forEach(x -> indeps.add(df.getColumn(x)));
 
+        // Collects the rows in which any of the variables is missing, which are left out of the sample data.
+
+        BitSet missing = depVector.missingEntries();
+        indeps.forEach(x -> missing.or(x.missingEntries()));
+        double[] depData = present(depVector.toDoubleArray(), missing);
+
         // makes a new matrix for values of the independent columns and puts the values in the matrix
 
-        double[][] indepData = new double[indeps.get(0).getValues().size()][indep.size()];
+        double[][] indepData = new double[depData.length][indep.size()];
 
         for(int j = 0; j < indeps.size(); j++){
-            List<Double> valuesOfColumn = indeps.get(j).getValues();
+            double[] valuesOfColumn = present(indeps.get(j).toDoubleArray(), missing);
 
-            for(int i = 0; i < indeps.get(0).getValues().size(); i++){
-                indepData[i][j] = valuesOfColumn.get(i);
+            for(int i = 0; i < valuesOfColumn.length; i++){
+                indepData[i][j] = valuesOfColumn[i];
             }
         }
 
@@ -150,4 +184,112 @@ public class Statistic implements DataFrameStatistics {
 
         return coefficients;
     }
+
+    /**
+     * Leaves the missing entries out of the values of a column.
+     *
+     * @param values  all values of the column
+     * @param missing the positions of the entries to leave out
+     * @return the remaining values, in order; the original array if no entry is missing
+     */
+
+    private static double[] present(double[] values, BitSet missing) {
+        if (missing.isEmpty()) {
+            return values;
+        }
+        double[] present = new double[values.length - missing.cardinality()];
+        int count = 0;
+        for (int i = missing.nextClearBit(0); i < values.length; i = missing.nextClearBit(i + 1)) {
+            present[count] = values[i];
+            count++;
+        }
+        return present;
+    }
+
+    /**
+     * Descriptive statistics whose sums, mean, variance and extremes are taken from the running aggregates of a column
+     * instead of being computed from the values again. Once a value is added, removed or replaced the aggregates no
+     * longer describe the values, so from then on every statistic is computed from the values.
+     */
+
+    private static final class SummarizedStatistics extends DescriptiveStatistics {
+
+        private static final long serialVersionUID = 1L;
+
+        private ColumnStatistics summary;
+
+        /**
+         * @param values  the present values of the column
+         * @param summary the running aggregates of the same values
+         */
+
+        private SummarizedStatistics(double[] values, ColumnStatistics summary) {
+            super(values);
+            this.summary = summary;
+        }
+
+        @Override
+        public double getMean() {
+            return this.summary == null ? super.getMean() : this.summary.getMean();
+        }
+
+        @Override
+        public double getVariance() {
+            return this.summary == null ? super.getVariance() : this.summary.getVariance();
+        }
+
+        @Override
+        public double getSum() {
+            return this.summary == null ? super.getSum() : this.summary.getSum();
+        }
+
+        @Override
+        public double getSumsq() {
+            return this.summary == null ? super.getSumsq() : this.summary.getSumOfSquares();
+        }
+
+        // The aggregates give NaN extremes if a value is NaN, while the extremes of the values skip NaN values.
+
+        @Override
+        public double getMin() {
+            double min = this.summary == null ? Double.NaN : this.summary.getMin();
+            return Double.isNaN(min) ? super.getMin() : min;
+        }
+
+        @Override
+        public double getMax() {
+            double max = this.summary == null ? Double.NaN : this.summary.getMax();
+            return Double.isNaN(max) ? super.getMax() : max;
+        }
+
+        @Override
+        public void addValue(double v) {
+            this.summary = null;
+            super.addValue(v);
+        }
+
+        @Override
+        public void removeMostRecentValue() {
+            this.summary = null;
+            super.removeMostRecentValue();
+        }
+
+        @Override
+        public double replaceMostRecentValue(double v) {
+            this.summary = null;
+            return super.replaceMostRecentValue(v);
+        }
+
+        @Override
+        public void setWindowSize(int windowSize) {
+            this.summary = null;
+            super.setWindowSize(windowSize);
+        }
+
+        @Override
+        public void clear() {
+            this.summary = null;
+            super.clear();
+        }
+    }
 }
@@ -0,0 +1,198 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class provides a column of strings that is dictionary-encoded: every distinct string is stored once in a
+ * dictionary, and the column stores the position of its string in the dictionary as an int code per row. For
+ * categorical data with few distinct values the column takes little more than four bytes per value, and values can be
+ * compared by their codes without comparing strings.
+ *
+ * The dictionary only grows; a string that is no longer used by any row keeps its code until the column is copied
+ * or gathered, which builds a new dictionary with only the strings that are used. A missing value has the code -1.
+ *
+ * @author 621810cc Carlos de Cloet
+ */
+
+public class StringColumn implements Column {
+
+    /**
+     * The code of a missing value.
+     */
+
+    public static final int MISSING = -1;
+
+    private final int[] codes;
+    private final List<String> dictionary;
+    private final Map<String, Integer> codeOf;
+
+    /**
+     * Constructs a column of the given length in which every value is missing.
+     *
+     * @param length the number of values
+     */
+
+    public StringColumn(int length) {
+        this(new int[length]);
+        Arrays.fill(this.codes, MISSING);
+    }
+
+    /**
+     * Constructs a column with an empty dictionary on top of an array of codes. The array is not copied.
+     *
+     * @param codes the codes of the column
+     */
+
+    private StringColumn(int[] codes) {
+        this.codes = codes;
+        this.dictionary = new ArrayList<>();
+        this.codeOf = new HashMap<>();
+    }
+
+    /**
+     * @param row the row index of the value
+     * @return the string stored at the row, or null if the value is missing
+     */
+
+    public String getString(int row) {
+        int code = this.codes[row];
+        return code == MISSING ? null : this.dictionary.get(code);
+    }
+
+    /**
+     * Sets the string stored at a row. A string that is not in the dictionary yet is added to it.
+     *
+     * @param row the row index of the value
+     * @param value the new string, or null to mark the value as missing
+     */
+
+    public void setString(int row, String value) {
+        this.codes[row] = value == null ? MISSING : encode(value);
+    }
+
+    /**
+     * @param row the row index of the value
+     * @return the code of the string stored at the row, or MISSING if the value is missing
+     */
+
+    public int getCode(int row) {
+        return this.codes[row];
+    }
+
+    /**
+     * Looks up the code of a string, for example to compare the values of this column with a string by their codes.
+     *
+     * @param value the string to look up
+     * @return the code of the string, or MISSING if no row of this column has ever held the string
+     */
+
+    public int codeOf(String value) {
+        Integer code = this.codeOf.get(value);
+        return code == null ? MISSING : code;
+    }
+
+    /**
+     * @return the strings of the dictionary, in the order of their codes
+     */
+
+    public List<String> getDictionary() {
+        return Collections.unmodifiableList(this.dictionary);
+    }
+
+    /**
+     * Gives the code of a string, adding the string to the dictionary if it is not in it yet.
+     *
+     * @param value the string
+     * @return the code of the string
+     */
+
+    private int encode(String value) {
+        Integer code = this.codeOf.get(value);
+        if (code == null) {
+            code = this.dictionary.size();
+            this.dictionary.add(value);
+            this.codeOf.put(value, code);
+        }
+        return code;
+    }
+
+    @Override
+    public int size() {
+        return this.codes.length;
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.STRING;
+    }
+
+    @Override
+    public boolean isValid(int row) {
+        return this.codes[row] != MISSING;
+    }
+
+    @Override
+    public Object getObject(int row) {
+        return getString(row);
+    }
+
+    @Override
+    public void setObject(int row, Object value) throws ClassCastException {
+        setString(row, (String) value);
+    }
+
+    @Override
+    public void setMissing(int row) {
+        this.codes[row] = MISSING;
+    }
+
+    @Override
+    public double getAsDouble(int row) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Column of strings has no numeric values");
+    }
+
+    @Override
+    public StringColumn copy(int length) {
+        int count = Math.min(length, this.codes.length);
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = i;
+        }
+        StringColumn copy = gather(rows, count);
+        if (length == count) {
+            return copy;
+        }
+        StringColumn longer = new StringColumn(length);
+        System.arraycopy(copy.codes, 0, longer.codes, 0, count);
+        longer.dictionary.addAll(copy.dictionary);
+        longer.codeOf.putAll(copy.codeOf);
+        return longer;
+    }
+
+    /**
+     * Gathers the codes of the given rows and re-encodes them into a new dictionary with only the strings that are
+     * used, in the order in which they first appear.
+     *
+     * @param rows the row indices of the values to gather
+     * @param count the number of row indices to use
+     * @return a new column with count values
+     */
+
+    @Override
+    public StringColumn gather(int[] rows, int count) {
+        StringColumn gathered = new StringColumn(new int[count]);
+        int[] recoded = new int[this.dictionary.size()];
+        Arrays.fill(recoded, MISSING);
+        for (int i = 0; i < count; i++) {
+            int code = this.codes[rows[i]];
+            if (code != MISSING && recoded[code] == MISSING) {
+                recoded[code] = gathered.encode(this.dictionary.get(code));
+            }
+            gathered.codes[i] = code == MISSING ? MISSING : recoded[code];
+        }
+        return gathered;
+    }
+}